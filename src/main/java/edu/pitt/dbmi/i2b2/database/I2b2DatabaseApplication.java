@@ -18,13 +18,7 @@
  */
 package edu.pitt.dbmi.i2b2.database;
 
-import edu.pitt.dbmi.i2b2.database.service.CrcDBService;
-import edu.pitt.dbmi.i2b2.database.service.FileSysService;
-import edu.pitt.dbmi.i2b2.database.service.MetadataDBService;
-import java.io.IOException;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.sql.SQLException;
+import edu.pitt.dbmi.i2b2.database.service.LoadPlanService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
@@ -40,54 +34,14 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 public class I2b2DatabaseApplication implements CommandLineRunner {
 
     @Autowired
-    private MetadataDBService metadataDBService;
-
-    @Autowired
-    private CrcDBService crcDBService;
-
-    @Autowired
-    private FileSysService fileSysService;
+    private LoadPlanService loadPlanService;
 
     @Override
     public void run(String... args) throws Exception {
-//        insertObservationFacts();
-//        createMetadatTableForSharephe();
-//        mergeMetadatFiles();
-    }
-
-    private void mergeMetadatFiles() {
-        System.out.println("================================================================================");
-        System.out.println("Merge Metadata Files");
-        System.out.println("--------------------------------------------------------------------------------");
-        Path metadataFileFolder = Paths.get("data", "metadata");
-        fileSysService.mergeMetadataFiles(metadataFileFolder);
-        System.out.println("================================================================================");
-    }
-
-    private void createMetadatTableForSharephe() {
-        System.out.println("================================================================================");
-        System.out.println("Create Sharephe Metadata Table");
-        System.out.println("--------------------------------------------------------------------------------");
-        Path metadataDirectory = Paths.get("data", "metadata");
-        try {
-            metadataDBService.createSharepheMetadataTables(metadataDirectory);
-        } catch (Exception exception) {
-            exception.printStackTrace(System.err);
-        }
-        System.out.println("================================================================================");
-    }
-
-    private void insertObservationFacts() {
-        System.out.println("================================================================================");
-        System.out.println("Insert Into Act Observation Fact Table");
-        System.out.println("--------------------------------------------------------------------------------");
-        Path observationFactFile = Paths.get("data", "observation_fact.tsv");
-        try {
-            crcDBService.insertIntoObservationFactTable(observationFactFile);
-        } catch (SQLException | IOException exception) {
-            exception.printStackTrace(System.err);
+        // fail the application, so that it exits with a non-zero status
+        if (loadPlanService.hasSteps() && !loadPlanService.run()) {
+            throw new IllegalStateException("The load plan failed.  See the log for the failed steps.");
         }
-        System.out.println("================================================================================");
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.conf;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The load plan: the steps to run, keyed by step name, and the steps each of
+ * them depends on. For example:
+ * <pre>
+ * i2b2.load-plan.steps.ontology.job=ontology-load
+ * i2b2.load-plan.steps.ontology.path=data/metadata
+ * i2b2.load-plan.steps.ontology-index.job=ontology-index
+ * i2b2.load-plan.steps.ontology-index.depends-on=ontology
+ * i2b2.load-plan.steps.facts.job=fact-load
+ * i2b2.load-plan.steps.facts.path=data/observation_fact.tsv
+ * </pre>
+ *
+ * Oct 18, 2026 2:40:18 PM
+ *
+ * @author agent (agent@local)
+ */
+@Configuration
+@ConfigurationProperties(prefix = "i2b2.load-plan")
+public class LoadPlanProperties {
+
+    /**
+     * Maximum number of steps to run at the same time. Zero means as many as
+     * there are steps.
+     */
+    private int threads;
+
+    private Map<String, Step> steps = new LinkedHashMap<>();
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public Map<String, Step> getSteps() {
+        return steps;
+    }
+
+    public void setSteps(Map<String, Step> steps) {
+        this.steps = steps;
+    }
+
+    public static class Step {
+
+        private String job;
+        private String path;
+        private String output;
+        private boolean minimalLogging;
+        private boolean profile;
+        private boolean partitioned;
+        private boolean checkConceptCodes;
+        private List<String> sortBy = new LinkedList<>();
+        private List<String> dependsOn = new LinkedList<>();
+
+        public String getJob() {
+            return job;
+        }
+
+        public void setJob(String job) {
+            this.job = job;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public String getOutput() {
+            return output;
+        }
+
+        public void setOutput(String output) {
+            this.output = output;
+        }
+
+        public boolean isMinimalLogging() {
+            return minimalLogging;
+        }
+
+        public void setMinimalLogging(boolean minimalLogging) {
+            this.minimalLogging = minimalLogging;
+        }
+
+        public boolean isProfile() {
+            return profile;
+        }
+
+        public void setProfile(boolean profile) {
+            this.profile = profile;
+        }
+
+        public boolean isPartitioned() {
+            return partitioned;
+        }
+
+        public void setPartitioned(boolean partitioned) {
+            this.partitioned = partitioned;
+        }
+
+        public boolean isCheckConceptCodes() {
+            return checkConceptCodes;
+        }
+
+        public void setCheckConceptCodes(boolean checkConceptCodes) {
+            this.checkConceptCodes = checkConceptCodes;
+        }
+
+        public List<String> getSortBy() {
+            return sortBy;
+        }
+
+        public void setSortBy(List<String> sortBy) {
+            this.sortBy = sortBy;
+        }
+
+        public List<String> getDependsOn() {
+            return dependsOn;
+        }
+
+        public void setDependsOn(List<String> dependsOn) {
+            this.dependsOn = dependsOn;
+        }
+
+    }
+
+}
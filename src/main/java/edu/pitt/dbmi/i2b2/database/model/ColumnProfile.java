@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.model;
+
+import edu.pitt.dbmi.i2b2.database.util.HyperLogLog;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Statistics and validation results of a single column of a data file.
+ *
+ * Oct 18, 2026 9:26:04 AM
+ *
+ * @author agent (agent@local)
+ */
+public class ColumnProfile {
+
+    private static final int MAX_NUM_OF_SAMPLES = 5;
+
+    private final String name;
+    private final TableColumn column;
+    private final HyperLogLog distinctValues;
+    private final List<String> violationSamples;
+
+    private long nullCount;
+    private int maxLength;
+    private long nullViolations;
+    private long lengthViolations;
+    private long typeViolations;
+
+    public ColumnProfile(String name, TableColumn column) {
+        this.name = name;
+        this.column = column;
+        this.distinctValues = new HyperLogLog();
+        this.violationSamples = new LinkedList<>();
+    }
+
+    public void addNull() {
+        nullCount++;
+    }
+
+    public void addValue(String value) {
+        distinctValues.add(value);
+        if (value.length() > maxLength) {
+            maxLength = value.length();
+        }
+    }
+
+    public void addNullViolation(long offset) {
+        nullViolations++;
+        addViolationSample(offset, "null value in a NOT NULL column");
+    }
+
+    public void addLengthViolation(long offset, String value) {
+        lengthViolations++;
+        addViolationSample(offset, String.format("length %d exceeds %d", value.length(), column.getSize()));
+    }
+
+    public void addTypeViolation(long offset, String value) {
+        typeViolations++;
+        addViolationSample(offset, String.format("'%s' is not a valid %s", abbreviate(value), column.getTypeName()));
+    }
+
+    private void addViolationSample(long offset, String message) {
+        if (violationSamples.size() < MAX_NUM_OF_SAMPLES) {
+            violationSamples.add(String.format("byte offset %d: %s", offset, message));
+        }
+    }
+
+    private static String abbreviate(String value) {
+        return (value.length() > 40) ? value.substring(0, 37) + "..." : value;
+    }
+
+    public void merge(ColumnProfile other) {
+        nullCount += other.nullCount;
+        maxLength = Math.max(maxLength, other.maxLength);
+        nullViolations += other.nullViolations;
+        lengthViolations += other.lengthViolations;
+        typeViolations += other.typeViolations;
+        distinctValues.merge(other.distinctValues);
+        for (String sample : other.violationSamples) {
+            if (violationSamples.size() < MAX_NUM_OF_SAMPLES) {
+                violationSamples.add(sample);
+            }
+        }
+    }
+
+    public long getViolationCount() {
+        return nullViolations + lengthViolations + typeViolations;
+    }
+
+    public long getDistinctCountEstimate() {
+        return distinctValues.estimate();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public TableColumn getColumn() {
+        return column;
+    }
+
+    public List<String> getViolationSamples() {
+        return violationSamples;
+    }
+
+    public long getNullCount() {
+        return nullCount;
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    public long getNullViolations() {
+        return nullViolations;
+    }
+
+    public long getLengthViolations() {
+        return lengthViolations;
+    }
+
+    public long getTypeViolations() {
+        return typeViolations;
+    }
+
+}
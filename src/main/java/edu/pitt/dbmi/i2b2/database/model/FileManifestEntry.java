@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.model;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * What was loaded from a file: its size, modification time, content hash and
+ * the SOURCESYSTEM_CD values of its rows.
+ *
+ * Oct 18, 2026 9:26:03 PM
+ *
+ * @author agent (agent@local)
+ */
+public class FileManifestEntry {
+
+    private final String fileName;
+    private final long fileSize;
+    private final long lastModified;
+    private final long contentHash;
+    private final Set<String> sourceSystemCodes;
+
+    /**
+     * @param fileName
+     * @param fileSize
+     * @param lastModified
+     * @param contentHash
+     * @param sourceSystemCodes the SOURCESYSTEM_CD values of the rows or null
+     * if some rows have none, so the rows of the file cannot be told apart
+     */
+    public FileManifestEntry(String fileName, long fileSize, long lastModified, long contentHash, Set<String> sourceSystemCodes) {
+        this.fileName = fileName;
+        this.fileSize = fileSize;
+        this.lastModified = lastModified;
+        this.contentHash = contentHash;
+        this.sourceSystemCodes = (sourceSystemCodes == null) ? null : Collections.unmodifiableSet(sourceSystemCodes);
+    }
+
+    public FileManifestEntry withSourceSystemCodes(Set<String> sourceSystemCodes) {
+        return new FileManifestEntry(fileName, fileSize, lastModified, contentHash, sourceSystemCodes);
+    }
+
+    /**
+     * A file with the same size and modification time is taken to have the
+     * same content without hashing it again.
+     *
+     * @param fileSize
+     * @param lastModified
+     * @return
+     */
+    public boolean hasSameAttributes(long fileSize, long lastModified) {
+        return this.fileSize == fileSize && this.lastModified == lastModified;
+    }
+
+    public boolean hasSameContent(FileManifestEntry other) {
+        return fileSize == other.fileSize && contentHash == other.contentHash;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    public Set<String> getSourceSystemCodes() {
+        return sourceSystemCodes;
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.model;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Statistics and validation results of a data file, gathered before the file
+ * is loaded into the database.
+ *
+ * Oct 18, 2026 9:41:27 AM
+ *
+ * @author agent (agent@local)
+ */
+public class FileProfile {
+
+    private final Path file;
+    private final List<ColumnProfile> columnProfiles;
+
+    private long rowCount;
+    private long dataLength;
+    private long malformedRowCount;
+
+    public FileProfile(Path file, List<String> headers, List<TableColumn> tableColumns) {
+        this.file = file;
+        this.columnProfiles = new ArrayList<>(headers.size());
+        for (String header : headers) {
+            TableColumn tableColumn = tableColumns.stream()
+                    .filter(column -> column.getName().equalsIgnoreCase(header))
+                    .findFirst()
+                    .orElse(null);
+            columnProfiles.add(new ColumnProfile(header, tableColumn));
+        }
+    }
+
+    public void addRow(int numOfBytes) {
+        rowCount++;
+        dataLength += numOfBytes;
+    }
+
+    public void addMalformedRow() {
+        malformedRowCount++;
+    }
+
+    public void merge(FileProfile other) {
+        rowCount += other.rowCount;
+        dataLength += other.dataLength;
+        malformedRowCount += other.malformedRowCount;
+        for (int i = 0; i < columnProfiles.size(); i++) {
+            columnProfiles.get(i).merge(other.columnProfiles.get(i));
+        }
+    }
+
+    public boolean hasViolations() {
+        if (malformedRowCount > 0) {
+            return true;
+        }
+
+        return columnProfiles.stream()
+                .anyMatch(profile -> profile.getColumn() == null || profile.getViolationCount() > 0);
+    }
+
+    public long getAverageRowLength() {
+        return (rowCount == 0) ? 0 : dataLength / rowCount;
+    }
+
+    /**
+     * Get the number of rows to send per batch so that a batch holds roughly
+     * the given number of bytes, but never more than maxBatchSize rows.
+     *
+     * @param maxBatchSize
+     * @param batchByteBudget
+     * @return
+     */
+    public int getRecommendedBatchSize(int maxBatchSize, long batchByteBudget) {
+        long averageRowLength = getAverageRowLength();
+        if (averageRowLength == 0) {
+            return maxBatchSize;
+        }
+
+        return (int) Math.max(1, Math.min(maxBatchSize, batchByteBudget / averageRowLength));
+    }
+
+    public String toReport() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("File: %s%n", file));
+        report.append(String.format("Rows: %d, average row length: %d bytes, malformed rows: %d%n", rowCount, getAverageRowLength(), malformedRowCount));
+        report.append(String.format("%-20s %-12s %10s %8s %10s %12s %10s%n", "Column", "Type", "Null Ratio", "Max Len", "Distinct", "Violations", "Status"));
+        for (ColumnProfile profile : columnProfiles) {
+            TableColumn column = profile.getColumn();
+            String type = (column == null) ? "?" : String.format("%s(%d)", column.getTypeName(), column.getSize());
+            double nullRatio = (rowCount == 0) ? 0 : (double) profile.getNullCount() / rowCount;
+            String status = (column == null)
+                    ? "UNKNOWN"
+                    : (profile.getViolationCount() > 0) ? "FAIL" : "OK";
+            report.append(String.format("%-20s %-12s %10.4f %8d %10d %12d %10s%n",
+                    profile.getName(), type, nullRatio, profile.getMaxLength(),
+                    profile.getDistinctCountEstimate(), profile.getViolationCount(), status));
+            for (String sample : profile.getViolationSamples()) {
+                report.append(String.format("    %s%n", sample));
+            }
+        }
+
+        return report.toString();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public List<ColumnProfile> getColumnProfiles() {
+        return columnProfiles;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getDataLength() {
+        return dataLength;
+    }
+
+    public long getMalformedRowCount() {
+        return malformedRowCount;
+    }
+
+}
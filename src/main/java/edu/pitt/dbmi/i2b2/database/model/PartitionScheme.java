@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.model;
+
+import edu.pitt.dbmi.i2b2.database.util.ColumnValues;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The range partitions of a table on a single column.
+ *
+ * Oct 18, 2026 7:03:12 PM
+ *
+ * @author agent (agent@local)
+ */
+public class PartitionScheme {
+
+    private final String column;
+    private final int columnType;
+    private final List<TablePartition> partitions;
+    private final TablePartition defaultPartition;
+
+    /**
+     * @param column the partition key column
+     * @param columnType the java.sql.Types of the partition key column
+     * @param partitions the range partitions
+     * @param defaultPartition the partition of rows that fall outside of every
+     * range, or null if there is none
+     */
+    public PartitionScheme(String column, int columnType, List<TablePartition> partitions, TablePartition defaultPartition) {
+        this.column = column;
+        this.columnType = columnType;
+        this.defaultPartition = defaultPartition;
+
+        // sort by upper bound, with the unbounded partition last
+        this.partitions = new ArrayList<>(partitions);
+        this.partitions.sort(Comparator.comparing(TablePartition::getUpperBound, Comparator.nullsLast(Comparator.naturalOrder())));
+    }
+
+    /**
+     * Rows can only be routed on numeric or date keys. String keys are ordered
+     * by the collation of the database, which the client cannot reproduce.
+     *
+     * @return
+     */
+    public boolean isRoutable() {
+        return ColumnValues.isNumericType(columnType) || ColumnValues.isDateType(columnType);
+    }
+
+    /**
+     * Find the partition of the key.
+     *
+     * @param key
+     * @return the partition or null if the key does not belong to any
+     * @throws UnsupportedOperationException if the partition key is not
+     * routable
+     */
+    public TablePartition route(Comparable<Object> key) {
+        if (!isRoutable()) {
+            throw new UnsupportedOperationException(String.format("Rows cannot be routed on partition key column %s.", column));
+        }
+
+        if (key == null) {
+            return defaultPartition;
+        }
+
+        // binary search for the first partition whose upper bound is above the key
+        int low = 0;
+        int high = partitions.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            Comparable<Object> upperBound = partitions.get(middle).getUpperBound();
+            if (upperBound == null || upperBound.compareTo(key) > 0) {
+                high = middle - 1;
+            } else {
+                low = middle + 1;
+            }
+        }
+
+        if (low < partitions.size() && partitions.get(low).contains(key)) {
+            return partitions.get(low);
+        }
+
+        return defaultPartition;
+    }
+
+    public TablePartition getPartition(String name) {
+        for (TablePartition partition : partitions) {
+            if (partition.getName().equalsIgnoreCase(name)) {
+                return partition;
+            }
+        }
+
+        return (defaultPartition != null && defaultPartition.getName().equalsIgnoreCase(name)) ? defaultPartition : null;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public int getColumnType() {
+        return columnType;
+    }
+
+    public List<TablePartition> getPartitions() {
+        return partitions;
+    }
+
+    public TablePartition getDefaultPartition() {
+        return defaultPartition;
+    }
+
+}
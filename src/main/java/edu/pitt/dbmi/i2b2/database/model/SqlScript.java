@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.model;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A SQL script parsed once into its statements. Each statement is kept as
+ * literal text and named placeholders, such as ${table_name}, so rendering it
+ * only substitutes the placeholders and never rewrites identifiers that
+ * happen to contain a parameter value.
+ *
+ * Oct 18, 2026 8:40:12 PM
+ *
+ * @author agent (agent@local)
+ */
+public class SqlScript {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{(\\w+)\\}");
+
+    private final String name;
+    private final List<Template> statements;
+
+    private SqlScript(String name, List<Template> statements) {
+        this.name = name;
+        this.statements = statements;
+    }
+
+    /**
+     * Parse the lines of a script. Lines starting with -- are comments.
+     * Statements end with a semicolon outside of quotes; the semicolon after
+     * the last statement is optional.
+     *
+     * @param name
+     * @param lines
+     * @return
+     */
+    public static SqlScript parse(String name, List<String> lines) {
+        List<Template> statements = new ArrayList<>();
+
+        StringBuilder statement = new StringBuilder();
+        boolean inSingleQuotes = false;
+        boolean inDoubleQuotes = false;
+        for (String line : lines) {
+            if (!(inSingleQuotes || inDoubleQuotes) && line.trim().startsWith("--")) {
+                continue;
+            }
+
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c == '\'' && !inDoubleQuotes) {
+                    inSingleQuotes = !inSingleQuotes;
+                } else if (c == '"' && !inSingleQuotes) {
+                    inDoubleQuotes = !inDoubleQuotes;
+                } else if (c == ';' && !(inSingleQuotes || inDoubleQuotes)) {
+                    addStatement(statements, statement);
+                    statement.setLength(0);
+                    continue;
+                }
+                statement.append(c);
+            }
+            statement.append('\n');
+        }
+        addStatement(statements, statement);
+
+        return new SqlScript(name, Collections.unmodifiableList(statements));
+    }
+
+    private static void addStatement(List<Template> statements, StringBuilder statement) {
+        String sql = statement.toString().trim();
+        if (!sql.isEmpty()) {
+            statements.add(new Template(sql));
+        }
+    }
+
+    /**
+     * Render the statements with the given placeholder values.
+     *
+     * @param parameters
+     * @return
+     * @throws SQLException if a placeholder has no value
+     */
+    public List<String> render(Map<String, String> parameters) throws SQLException {
+        List<String> sqls = new ArrayList<>(statements.size());
+        for (Template statement : statements) {
+            sqls.add(statement.render(name, parameters));
+        }
+
+        return sqls;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return statements.size();
+    }
+
+    private static final class Template {
+
+        /**
+         * The literal text around the placeholders; there is one more literal
+         * than there are placeholders.
+         */
+        private final String[] literals;
+        private final String[] placeholders;
+        private final int length;
+
+        private Template(String sql) {
+            List<String> literalList = new ArrayList<>();
+            List<String> placeholderList = new ArrayList<>();
+
+            Matcher matcher = PLACEHOLDER.matcher(sql);
+            int start = 0;
+            while (matcher.find()) {
+                literalList.add(sql.substring(start, matcher.start()));
+                placeholderList.add(matcher.group(1));
+                start = matcher.end();
+            }
+            literalList.add(sql.substring(start));
+
+            this.literals = literalList.toArray(new String[literalList.size()]);
+            this.placeholders = placeholderList.toArray(new String[placeholderList.size()]);
+            this.length = sql.length();
+        }
+
+        private String render(String scriptName, Map<String, String> parameters) throws SQLException {
+            StringBuilder sql = new StringBuilder(length + 32);
+            sql.append(literals[0]);
+            for (int i = 0; i < placeholders.length; i++) {
+                String value = parameters.get(placeholders[i]);
+                if (value == null) {
+                    throw new SQLException(String.format("Script %s has no value for ${%s}.", scriptName, placeholders[i]));
+                }
+                sql.append(value).append(literals[i + 1]);
+            }
+
+            return sql.toString();
+        }
+
+    }
+
+}
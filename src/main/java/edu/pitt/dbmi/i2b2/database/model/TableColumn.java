@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.model;
+
+/**
+ * Column definition of a database table, as reported by the JDBC driver.
+ *
+ * Oct 18, 2026 9:02:15 AM
+ *
+ * @author agent (agent@local)
+ */
+public class TableColumn {
+
+    private final String name;
+    private final int type;
+    private final String typeName;
+    private final int size;
+    private final boolean nullable;
+
+    public TableColumn(String name, int type, String typeName, int size, boolean nullable) {
+        this.name = name;
+        this.type = type;
+        this.typeName = typeName;
+        this.size = size;
+        this.nullable = nullable;
+    }
+
+    @Override
+    public String toString() {
+        return "TableColumn{" + "name=" + name + ", type=" + type + ", typeName=" + typeName + ", size=" + size + ", nullable=" + nullable + '}';
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public String getTypeName() {
+        return typeName;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isNullable() {
+        return nullable;
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.model;
+
+/**
+ * A range partition of a table. The lower bound is inclusive and the upper
+ * bound is exclusive; a null bound is unbounded.
+ *
+ * Oct 18, 2026 6:55:30 PM
+ *
+ * @author agent (agent@local)
+ */
+public class TablePartition {
+
+    private final String name;
+    private final Comparable<Object> lowerBound;
+    private final Comparable<Object> upperBound;
+    private final String boundSpec;
+
+    /**
+     * @param name
+     * @param lowerBound
+     * @param upperBound
+     * @param boundSpec the bound as the database reports it, used to attach a
+     * table as this partition
+     */
+    @SuppressWarnings("unchecked")
+    public TablePartition(String name, Comparable<?> lowerBound, Comparable<?> upperBound, String boundSpec) {
+        this.name = name;
+        this.lowerBound = (Comparable<Object>) lowerBound;
+        this.upperBound = (Comparable<Object>) upperBound;
+        this.boundSpec = boundSpec;
+    }
+
+    public boolean contains(Comparable<Object> key) {
+        return (lowerBound == null || lowerBound.compareTo(key) <= 0)
+                && (upperBound == null || upperBound.compareTo(key) > 0);
+    }
+
+    @Override
+    public String toString() {
+        return "TablePartition{" + "name=" + name + ", lowerBound=" + lowerBound + ", upperBound=" + upperBound + '}';
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Comparable<Object> getLowerBound() {
+        return lowerBound;
+    }
+
+    public Comparable<Object> getUpperBound() {
+        return upperBound;
+    }
+
+    public String getBoundSpec() {
+        return boundSpec;
+    }
+
+}
@@ -18,32 +18,65 @@
  */
 package edu.pitt.dbmi.i2b2.database.service;
 
+import edu.pitt.dbmi.i2b2.database.model.FileManifestEntry;
+import edu.pitt.dbmi.i2b2.database.model.FileProfile;
+import edu.pitt.dbmi.i2b2.database.model.PartitionScheme;
+import edu.pitt.dbmi.i2b2.database.model.TableColumn;
+import edu.pitt.dbmi.i2b2.database.model.TablePartition;
+import edu.pitt.dbmi.i2b2.database.util.ColumnValues;
+import edu.pitt.dbmi.i2b2.database.util.DelimitedRecord;
+import edu.pitt.dbmi.i2b2.database.util.ExternalSorter;
+import edu.pitt.dbmi.i2b2.database.util.LineReader;
+import edu.pitt.dbmi.i2b2.database.util.ReferenceCheckingLineReader;
+import edu.pitt.dbmi.i2b2.database.util.ReferenceSet;
+import edu.pitt.dbmi.i2b2.database.util.StringDictionary;
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.Date;
-import java.sql.ParameterMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLDataException;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Statement;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.text.DateFormat;
 import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import javax.sql.DataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 /**
@@ -57,254 +90,1132 @@ public abstract class AbstractDBService {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractDBService.class);
 
     protected static final int DEFAULT_BATCH_SIZE = 10000;
+    protected static final long DEFAULT_BATCH_BYTE_BUDGET = 64L * 1024 * 1024;
+    protected static final long DEFAULT_SORT_MEMORY_BUDGET = 512L * 1024 * 1024;
+    protected static final int MAX_NUM_OF_PARTITION_WRITERS = 8;
+    protected static final int DEFAULT_FETCH_SIZE = 10000;
+    protected static final String MANIFEST_TABLE = "load_manifest";
+
+    private static final Path MANIFEST_TABLE_SCRIPT = Paths.get("sql", "load_manifest.sql");
+    private static final String MANIFEST_CODE_SEPARATOR = "\t";
+    private static final int MAX_MANIFEST_CODES_LENGTH = 4000;
+
+    private static final Pattern PG_RANGE_KEY = Pattern.compile("RANGE \\((\\w+)\\)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern PG_RANGE_BOUND = Pattern.compile("FOR VALUES FROM \\((.+)\\) TO \\((.+)\\)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DATE_LITERAL = Pattern.compile("(\\d{4}-\\d{2}-\\d{2})(?:[ T](\\d{2}:\\d{2}:\\d{2}))?");
 
     protected final FileSysService fileSysService;
+    protected final TableSchemaCache tableSchemaCache;
+    protected final SqlScriptService sqlScriptService;
 
-    public AbstractDBService(FileSysService fileSysService) {
+    public AbstractDBService(FileSysService fileSysService, TableSchemaCache tableSchemaCache, SqlScriptService sqlScriptService) {
         this.fileSysService = fileSysService;
+        this.tableSchemaCache = tableSchemaCache;
+        this.sqlScriptService = sqlScriptService;
     }
 
+    /**
+     * Create the indexes of the script, with ${index_prefix} and
+     * ${table_name} replaced. The indexes are built in parallel where the
+     * database allows it.
+     *
+     * @param jdbcTemplate
+     * @param indexNameprefix
+     * @param tableName
+     * @param file
+     * @throws SQLException
+     * @throws IOException
+     */
     protected void createTableIndexes(JdbcTemplate jdbcTemplate, String indexNameprefix, String tableName, Path file) throws SQLException, IOException {
-        List<String> queries = fileSysService.getResourceFileContentByLines(file);
-        for (String query : queries) {
-            // skip lines that are commented out
-            if (query.startsWith("--")) {
-                continue;
-            }
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("index_prefix", indexNameprefix);
+        parameters.put("table_name", tableName);
+
+        sqlScriptService.executeIndependent(jdbcTemplate, getDatabaseVendor(jdbcTemplate), file, parameters);
+    }
+
+    /**
+     * Profile the data file against the columns of the table and log the
+     * report. Fail before anything is loaded if any value does not fit its
+     * column.
+     *
+     * @param jdbcTemplate
+     * @param table
+     * @param file
+     * @param delimiter
+     * @param dateFormat
+     * @return
+     * @throws SQLException
+     * @throws IOException
+     */
+    protected FileProfile profileFile(
+            JdbcTemplate jdbcTemplate, String table,
+            Path file, Pattern delimiter,
+            DateFormat dateFormat) throws SQLException, IOException {
+        DataSource dataSource = jdbcTemplate.getDataSource();
+        if (dataSource == null) {
+            throw new SQLException("No datasource.");
+        }
+
+        List<TableColumn> tableColumns = tableSchemaCache.getColumns(dataSource, table);
+        if (tableColumns.isEmpty()) {
+            throw new SQLException(String.format("Unable to get the columns of table %s.", table));
+        }
 
-            query = query
-                    .replaceAll(";", "")
-                    .replaceAll("i2b2", indexNameprefix)
-                    .replaceAll("I2B2", tableName)
-                    .trim();
-            jdbcTemplate.execute(query);
+        // Oracle sizes CHAR and VARCHAR2 columns in bytes by default
+        boolean byteLengths = "Oracle".equals(getDatabaseVendor(jdbcTemplate));
+        FileProfile profile = fileSysService.profileFile(file, delimiter, (DateFormat) dateFormat.clone(), tableColumns, byteLengths);
+        LOGGER.info("Profile of {}:{}{}", table, System.lineSeparator(), profile.toReport());
+        if (profile.hasViolations()) {
+            throw new SQLDataException(String.format("File %s does not fit table %s.  See the profile report for details.", file, table));
         }
+
+        return profile;
     }
 
     protected void batchInsertMetadata(
             JdbcTemplate jdbcTemplate, String table, int batchSize,
             Path file, Pattern delimiter,
             DateFormat dateFormat) throws SQLException, IOException {
+        batchInsertMetadata(jdbcTemplate, table, batchSize, file, delimiter, dateFormat, false);
+    }
+
+    protected void batchInsertMetadata(
+            JdbcTemplate jdbcTemplate, String table, int batchSize,
+            Path file, Pattern delimiter,
+            DateFormat dateFormat, boolean minimalLogging) throws SQLException, IOException {
+        batchInsert(jdbcTemplate, table, batchSize, file, delimiter, dateFormat, minimalLogging);
+    }
+
+    protected void batchInsert(
+            JdbcTemplate jdbcTemplate, String table, int batchSize,
+            Path file, Pattern delimiter,
+            DateFormat dateFormat) throws SQLException, IOException {
+        batchInsert(jdbcTemplate, table, batchSize, file, delimiter, dateFormat, false);
+    }
+
+    protected void batchInsert(
+            JdbcTemplate jdbcTemplate, String table, int batchSize,
+            Path file, Pattern delimiter,
+            DateFormat dateFormat, boolean minimalLogging) throws SQLException, IOException {
+        batchInsert(jdbcTemplate, table, batchSize, DEFAULT_BATCH_BYTE_BUDGET, file, delimiter, dateFormat, minimalLogging);
+    }
+
+    /**
+     * Insert the rows of the file in batches. A batch is sent when it has
+     * batchSize rows or when the data in it reaches batchByteBudget bytes,
+     * whichever comes first, so that files with large CLOB values do not
+     * hold an unbounded amount of data on the heap.
+     *
+     * @param jdbcTemplate
+     * @param table
+     * @param batchSize
+     * @param batchByteBudget
+     * @param file
+     * @param delimiter
+     * @param dateFormat
+     * @param minimalLogging
+     * @throws SQLException
+     * @throws IOException
+     */
+    protected void batchInsert(
+            JdbcTemplate jdbcTemplate, String table, int batchSize, long batchByteBudget,
+            Path file, Pattern delimiter,
+            DateFormat dateFormat, boolean minimalLogging) throws SQLException, IOException {
+        List<String> headers = fileSysService.getHeaders(file);
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            // skip header
+            reader.readLine();
+
+            batchInsert(jdbcTemplate, table, batchSize, batchByteBudget,
+                    file, headers, reader::readLine, delimiter,
+                    dateFormat, minimalLogging);
+        }
+    }
+
+    /**
+     * Same as batchInsert, except that the rows of the file are inserted in
+     * the order of the given columns. The file is sorted with an external
+     * merge sort that spills to temporary files, so it does not need to fit
+     * in memory.
+     *
+     * @param jdbcTemplate
+     * @param table
+     * @param batchSize
+     * @param file
+     * @param delimiter
+     * @param dateFormat
+     * @param sortColumns
+     * @param minimalLogging
+     * @throws SQLException
+     * @throws IOException
+     */
+    protected void sortedBatchInsert(
+            JdbcTemplate jdbcTemplate, String table, int batchSize,
+            Path file, Pattern delimiter,
+            DateFormat dateFormat, List<String> sortColumns,
+            boolean minimalLogging) throws SQLException, IOException {
+        sortedBatchInsert(jdbcTemplate, table, batchSize, file, delimiter, dateFormat, sortColumns, null, null, minimalLogging);
+    }
+
+    /**
+     * Same as sortedBatchInsert, except that the rows are checked against the
+     * reference set first, as in referenceCheckedBatchInsert. Orphans are
+     * dropped before sorting.
+     *
+     * @param jdbcTemplate
+     * @param table
+     * @param batchSize
+     * @param file
+     * @param delimiter
+     * @param dateFormat
+     * @param sortColumns
+     * @param keyColumn
+     * @param references the reference set or null to insert every row
+     * @param minimalLogging
+     * @throws SQLException
+     * @throws IOException
+     */
+    protected void sortedBatchInsert(
+            JdbcTemplate jdbcTemplate, String table, int batchSize,
+            Path file, Pattern delimiter,
+            DateFormat dateFormat, List<String> sortColumns,
+            String keyColumn, ReferenceSet references,
+            boolean minimalLogging) throws SQLException, IOException {
         DataSource dataSource = jdbcTemplate.getDataSource();
-        if (dataSource != null) {
-            try (Connection conn = dataSource.getConnection()) {
-                // create prepared statement
-                String sql = createInsertStatement(conn.getSchema(), table.toLowerCase(), fileSysService.getHeaders(file));
-                PreparedStatement stmt = conn.prepareStatement(sql);
-
-                // get columnTypes
-                int count = 0;
-                int[] columnTypes = {
-                    Types.NUMERIC, // "C_HLEVEL" NUMBER(22,0) NOT NULL
-                    Types.VARCHAR, // "C_FULLNAME" VARCHAR2(700) NOT NULL
-                    Types.VARCHAR, // "C_NAME" VARCHAR2(2000) NOT NULL
-                    Types.CHAR,
-                    Types.CHAR,
-                    Types.NUMERIC,
-                    Types.VARCHAR,
-                    Types.CLOB,
-                    Types.VARCHAR,
-                    Types.VARCHAR,
-                    Types.VARCHAR,
-                    Types.VARCHAR,
-                    Types.VARCHAR,
-                    Types.VARCHAR,
-                    Types.CLOB,
-                    Types.VARCHAR,
-                    Types.VARCHAR,
-                    Types.DATE,
-                    Types.DATE,
-                    Types.DATE,
-                    Types.VARCHAR,
-                    Types.VARCHAR,
-                    Types.VARCHAR,
-                    Types.VARCHAR,
-                    Types.VARCHAR
-                };
-                try (BufferedReader reader = Files.newBufferedReader(file)) {
-                    // skip header
-                    reader.readLine();
-
-                    for (String line = reader.readLine(); line != null; line = reader.readLine()) {
-                        line = line.trim();
+        if (dataSource == null) {
+            return;
+        }
+
+        List<String> headers = fileSysService.getHeaders(file);
+        int[] columnTypes = getColumnTypes(tableSchemaCache.getColumns(dataSource, table), table, headers);
+        int[] keyIndexes = new int[sortColumns.size()];
+        int[] keyTypes = new int[sortColumns.size()];
+        for (int i = 0; i < keyIndexes.length; i++) {
+            keyIndexes[i] = headers.indexOf(sortColumns.get(i).trim().toLowerCase());
+            if (keyIndexes[i] < 0) {
+                throw new SQLException(String.format("File %s has no column %s to sort by.", file, sortColumns.get(i)));
+            }
+            keyTypes[i] = columnTypes[keyIndexes[i]];
+        }
+
+        ExternalSorter sorter = new ExternalSorter(delimiter, keyIndexes, keyTypes, dateFormat,
+                getSortMemoryBudget(), Runtime.getRuntime().availableProcessors());
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String header = reader.readLine();
+
+            try (ReferenceCheckingLineReader checkedLines = (references == null)
+                    ? null
+                    : createReferenceCheckingLineReader(file, header, headers, reader::readLine, delimiter, keyColumn, references);
+                    ExternalSorter.SortedLines sortedLines = sorter.sort((checkedLines == null) ? reader::readLine : checkedLines)) {
+                batchInsert(jdbcTemplate, table, batchSize, DEFAULT_BATCH_BYTE_BUDGET,
+                        file, headers, sortedLines, delimiter,
+                        dateFormat, minimalLogging);
+
+                if (checkedLines != null) {
+                    logOrphans(file, keyColumn, checkedLines);
+                }
+            }
+        }
+    }
+
+    /**
+     * Insert the rows of the file directly into the partitions of a
+     * range-partitioned table. Rows are routed to their partition on the
+     * client and sent in per-partition batches by parallel writers, each with
+     * its own connection, so the database does not route each row and the
+     * partitions are loaded concurrently. Rows outside of every partition are
+     * inserted through the table. Tables that are not range-partitioned on a
+     * single numeric or date column are loaded with batchInsert, so string
+     * keys are routed by the database with its own collation.
+     *
+     * A partition's rows are sent when they reach batchSize rows. The rows
+     * held for all partitions together are kept within the batch byte budget
+     * by sending the largest partition's rows whenever they exceed it.
+     *
+     * @param jdbcTemplate
+     * @param table
+     * @param batchSize
+     * @param file
+     * @param delimiter
+     * @param dateFormat
+     * @throws SQLException
+     * @throws IOException
+     */
+    protected void partitionedBatchInsert(
+            JdbcTemplate jdbcTemplate, String table, int batchSize,
+            Path file, Pattern delimiter,
+            DateFormat dateFormat) throws SQLException, IOException {
+        partitionedBatchInsert(jdbcTemplate, table, batchSize, file, delimiter, dateFormat, null, null);
+    }
+
+    /**
+     * Same as partitionedBatchInsert, except that the rows are checked against
+     * the reference set before they are routed, as in
+     * referenceCheckedBatchInsert.
+     *
+     * @param jdbcTemplate
+     * @param table
+     * @param batchSize
+     * @param file
+     * @param delimiter
+     * @param dateFormat
+     * @param keyColumn
+     * @param references the reference set or null to insert every row
+     * @throws SQLException
+     * @throws IOException
+     */
+    @SuppressWarnings("unchecked")
+    protected void partitionedBatchInsert(
+            JdbcTemplate jdbcTemplate, String table, int batchSize,
+            Path file, Pattern delimiter,
+            DateFormat dateFormat, String keyColumn, ReferenceSet references) throws SQLException, IOException {
+        PartitionScheme scheme = getPartitionScheme(jdbcTemplate, table);
+        if (scheme == null || !scheme.isRoutable()) {
+            if (scheme == null) {
+                LOGGER.info("Table {} is not range-partitioned on a single column.  Rows are inserted through the table.", table);
+            } else {
+                LOGGER.info("Table {} is range-partitioned on column {}, which is not numeric or a date.  Rows are inserted through the table.", table, scheme.getColumn());
+            }
+            if (references == null) {
+                batchInsert(jdbcTemplate, table, batchSize, file, delimiter, dateFormat);
+            } else {
+                referenceCheckedBatchInsert(jdbcTemplate, table, batchSize, file, delimiter, dateFormat, keyColumn, references, false);
+            }
+            return;
+        }
+
+        List<String> headers = fileSysService.getHeaders(file);
+        int keyIndex = headers.indexOf(scheme.getColumn().toLowerCase());
+        if (keyIndex < 0) {
+            throw new SQLException(String.format("File %s has no partition key column %s.", file, scheme.getColumn()));
+        }
+
+        // PostgreSQL partitions are tables; Oracle partitions are named in the insert
+        boolean isOracle = "Oracle".equals(getDatabaseVendor(jdbcTemplate));
+
+        int numOfWriters = Math.max(1, Math.min(
+                Math.min(scheme.getPartitions().size(), MAX_NUM_OF_PARTITION_WRITERS),
+                Runtime.getRuntime().availableProcessors()));
+        BlockingQueue<PartitionBatch> queue = new ArrayBlockingQueue<>(numOfWriters * 2);
+        ExecutorService executor = Executors.newFixedThreadPool(numOfWriters);
+        try {
+            List<Future<?>> writers = new LinkedList<>();
+            for (int i = 0; i < numOfWriters; i++) {
+                writers.add(executor.submit(() -> {
+                    for (PartitionBatch batch = queue.take(); batch != PartitionBatch.END; batch = queue.take()) {
+                        Iterator<String> lines = batch.lines.iterator();
+                        batchInsert(jdbcTemplate, batch.table, batch.partition, batchSize, DEFAULT_BATCH_BYTE_BUDGET,
+                                file, headers, () -> lines.hasNext() ? lines.next() : null, delimiter,
+                                dateFormat, false);
+                    }
+
+                    return null;
+                }));
+            }
+
+            Map<TablePartition, PartitionBuffer> buffers = new HashMap<>();
+            long numOfBufferedBytes = 0;
+            DelimitedRecord record = new DelimitedRecord(delimiter);
+            DateFormat keyDateFormat = (DateFormat) dateFormat.clone();
+            try (BufferedReader reader = Files.newBufferedReader(file)) {
+                String header = reader.readLine();
+
+                try (ReferenceCheckingLineReader checkedLines = (references == null)
+                        ? null
+                        : createReferenceCheckingLineReader(file, header, headers, reader::readLine, delimiter, keyColumn, references)) {
+                    LineReader lines = (checkedLines == null) ? reader::readLine : checkedLines;
+                    for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+                        String trimmed = line.trim();
 
                         // skip lines that are commented out
-                        if (line.isEmpty() || line.startsWith("--")) {
+                        if (trimmed.isEmpty() || trimmed.startsWith("--")) {
                             continue;
                         }
 
-                        try {
-                            String[] values = delimiter.split(line);
-
-                            setColumns(stmt, columnTypes, values, dateFormat);
-
-                            // add null columns not provided
-                            if (values.length < columnTypes.length) {
-                                for (int i = values.length; i < columnTypes.length; i++) {
-                                    stmt.setNull(i + 1, Types.NULL);
-                                }
-                            }
-                        } catch (Exception exception) {
-                            LOGGER.error("", exception);
-                        }
+                        record.parse(trimmed);
+                        Comparable<Object> key = (keyIndex < record.size() && !record.isEmpty(keyIndex))
+                                ? (Comparable<Object>) ColumnValues.toKey(record.getString(keyIndex), scheme.getColumnType(), keyDateFormat)
+                                : null;
+                        TablePartition partition = scheme.route(key);
 
-                        stmt.addBatch();
-                        count++;
-                        if (count == batchSize) {
-                            stmt.executeBatch();
-                            stmt.clearBatch();
-                            count = 0;
+                        PartitionBuffer buffer = buffers.computeIfAbsent(partition, k -> new PartitionBuffer(batchSize));
+                        long numOfBytes = (long) trimmed.length() * Character.BYTES;
+                        buffer.lines.add(trimmed);
+                        buffer.numOfBytes += numOfBytes;
+                        numOfBufferedBytes += numOfBytes;
+                        if (buffer.lines.size() < batchSize && numOfBufferedBytes >= DEFAULT_BATCH_BYTE_BUDGET) {
+                            partition = getLargestPartitionBuffer(buffers);
+                            buffer = buffers.get(partition);
                         }
+                        if (buffer.lines.size() == batchSize || numOfBufferedBytes >= DEFAULT_BATCH_BYTE_BUDGET) {
+                            putPartitionBatch(queue, new PartitionBatch(table, partition, isOracle, buffer.lines), writers);
+                            buffers.remove(partition);
+                            numOfBufferedBytes -= buffer.numOfBytes;
+                        }
+                    }
+
+                    if (checkedLines != null) {
+                        logOrphans(file, keyColumn, checkedLines);
                     }
                 }
-                if (count > 0) {
-                    stmt.executeBatch();
-                    stmt.clearBatch();
-                    count = 0;
+            }
+            for (Map.Entry<TablePartition, PartitionBuffer> entry : buffers.entrySet()) {
+                putPartitionBatch(queue, new PartitionBatch(table, entry.getKey(), isOracle, entry.getValue().lines), writers);
+            }
+            for (int i = 0; i < numOfWriters; i++) {
+                putPartitionBatch(queue, PartitionBatch.END, writers);
+            }
+
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(String.format("Loading of %s was interrupted.", file));
+        } catch (ExecutionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new SQLException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static TablePartition getLargestPartitionBuffer(Map<TablePartition, PartitionBuffer> buffers) {
+        TablePartition largest = null;
+        long numOfBytes = -1;
+        for (Map.Entry<TablePartition, PartitionBuffer> entry : buffers.entrySet()) {
+            if (entry.getValue().numOfBytes > numOfBytes) {
+                largest = entry.getKey();
+                numOfBytes = entry.getValue().numOfBytes;
+            }
+        }
+
+        return largest;
+    }
+
+    /**
+     * Queue the batch, failing as soon as a writer fails instead of waiting
+     * for room in the queue forever.
+     */
+    private void putPartitionBatch(BlockingQueue<PartitionBatch> queue, PartitionBatch batch, List<Future<?>> writers) throws InterruptedException, ExecutionException {
+        while (!queue.offer(batch, 1, TimeUnit.SECONDS)) {
+            for (Future<?> writer : writers) {
+                if (writer.isDone()) {
+                    writer.get();
                 }
             }
         }
     }
 
-    protected void batchInsert(
-            JdbcTemplate jdbcTemplate, String table, int batchSize,
+    /**
+     * Replace the rows of one partition with the rows of the file. The file
+     * is loaded into a staging table first, so the partition keeps its old
+     * rows until the staging table takes its place.
+     * <ul>
+     * <li>PostgreSQL: the partition is detached and dropped, and the staging
+     * table is attached with the same bounds, in one transaction.</li>
+     * <li>Oracle: the partition is exchanged with the staging table, and the
+     * staging table, now holding the old rows, is dropped.</li>
+     * </ul>
+     * If anything fails, the staging table is dropped.
+     *
+     * @param jdbcTemplate
+     * @param table
+     * @param partitionName
+     * @param batchSize
+     * @param file
+     * @param delimiter
+     * @param dateFormat
+     * @throws SQLException
+     * @throws IOException
+     */
+    protected void replacePartition(
+            JdbcTemplate jdbcTemplate, String table, String partitionName, int batchSize,
             Path file, Pattern delimiter,
             DateFormat dateFormat) throws SQLException, IOException {
         DataSource dataSource = jdbcTemplate.getDataSource();
+        PartitionScheme scheme = getPartitionScheme(jdbcTemplate, table);
+        TablePartition partition = (scheme == null) ? null : scheme.getPartition(partitionName);
+        if (dataSource == null || partition == null) {
+            throw new SQLException(String.format("Table %s has no partition %s.", table, partitionName));
+        }
+
+        String stagingTable = partition.getName().toLowerCase() + "_stg";
+        String vendor = getDatabaseVendor(jdbcTemplate);
+        String schema;
+        try (Connection conn = dataSource.getConnection()) {
+            schema = conn.getSchema();
+        }
+        String qualifiedTable = String.format("%s.%s", schema, table.toLowerCase());
+        String qualifiedStagingTable = String.format("%s.%s", schema, stagingTable);
+        switch (vendor) {
+            case "PostgreSQL":
+                jdbcTemplate.execute(String.format("CREATE TABLE %s (LIKE %s INCLUDING DEFAULTS INCLUDING CONSTRAINTS)", qualifiedStagingTable, qualifiedTable));
+                break;
+            case "Oracle":
+                jdbcTemplate.execute(String.format("CREATE TABLE %s AS SELECT * FROM %s WHERE 1 = 0", qualifiedStagingTable, qualifiedTable));
+                break;
+            default:
+                throw new SQLException(String.format("Replacing partitions is not supported for %s.", vendor));
+        }
+
+        // the staging table is dropped on any failure so that the partition can be replaced again
+        try {
+            batchInsert(jdbcTemplate, stagingTable, batchSize, file, delimiter, dateFormat);
+
+            if ("PostgreSQL".equals(vendor)) {
+                String qualifiedPartition = String.format("%s.%s", schema, partition.getName());
+                try (Connection conn = dataSource.getConnection()) {
+                    conn.setAutoCommit(false);
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.execute(String.format("ALTER TABLE %s DETACH PARTITION %s", qualifiedTable, qualifiedPartition));
+                        stmt.execute(String.format("DROP TABLE %s", qualifiedPartition));
+                        stmt.execute(String.format("ALTER TABLE %s RENAME TO %s", qualifiedStagingTable, partition.getName()));
+                        stmt.execute(String.format("ALTER TABLE %s ATTACH PARTITION %s %s", qualifiedTable, qualifiedPartition, partition.getBoundSpec()));
+                        conn.commit();
+                    } catch (SQLException exception) {
+                        conn.rollback();
+                        throw exception;
+                    } finally {
+                        conn.setAutoCommit(true);
+                    }
+                }
+            } else {
+                jdbcTemplate.execute(String.format("ALTER TABLE %s EXCHANGE PARTITION %s WITH TABLE %s WITH VALIDATION UPDATE GLOBAL INDEXES", qualifiedTable, partition.getName(), qualifiedStagingTable));
+                jdbcTemplate.execute(String.format("ALTER TABLE %s MODIFY PARTITION %s REBUILD UNUSABLE LOCAL INDEXES", qualifiedTable, partition.getName()));
+                jdbcTemplate.execute(String.format("DROP TABLE %s PURGE", qualifiedStagingTable));
+            }
+        } catch (SQLException | IOException | DataAccessException exception) {
+            try {
+                dropTable(dataSource, stagingTable);
+            } catch (SQLException dropException) {
+                exception.addSuppressed(dropException);
+            }
+            throw exception;
+        } finally {
+            tableSchemaCache.evict(dataSource, stagingTable);
+        }
+        LOGGER.info("Replaced partition {} of table {} with the rows of {}.", partition.getName(), table, file);
+    }
+
+    /**
+     * Get the range partitions of the table from the catalog.
+     *
+     * @param jdbcTemplate
+     * @param table
+     * @return the partitions or null if the table is not range-partitioned on
+     * a single column
+     * @throws SQLException
+     */
+    protected PartitionScheme getPartitionScheme(JdbcTemplate jdbcTemplate, String table) throws SQLException {
+        DataSource dataSource = jdbcTemplate.getDataSource();
+        if (dataSource == null) {
+            return null;
+        }
+
+        List<TableColumn> columns = tableSchemaCache.getColumns(dataSource, table);
+        switch (getDatabaseVendor(jdbcTemplate)) {
+            case "PostgreSQL":
+                return getPostgreSQLPartitionScheme(jdbcTemplate, table, columns);
+            case "Oracle":
+                return getOraclePartitionScheme(jdbcTemplate, table, columns);
+            default:
+                return null;
+        }
+    }
+
+    private PartitionScheme getPostgreSQLPartitionScheme(JdbcTemplate jdbcTemplate, String table, List<TableColumn> columns) throws SQLException {
+        List<String> keys = jdbcTemplate.queryForList(
+                "SELECT pg_get_partkeydef(c.oid) FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace "
+                + "WHERE c.relname = ? AND n.nspname = current_schema()", String.class, table.toLowerCase());
+        if (keys.isEmpty() || keys.get(0) == null) {
+            return null;
+        }
+
+        Matcher keyMatcher = PG_RANGE_KEY.matcher(keys.get(0));
+        if (!keyMatcher.matches()) {
+            LOGGER.warn("Partition key {} of table {} is not supported.", keys.get(0), table);
+            return null;
+        }
+        String column = keyMatcher.group(1);
+        int columnType = getColumnType(columns, table, column);
+
+        List<TablePartition> partitions = new LinkedList<>();
+        TablePartition defaultPartition = null;
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT c.relname AS name, pg_get_expr(c.relpartbound, c.oid) AS bound "
+                + "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent "
+                + "JOIN pg_namespace n ON n.oid = p.relnamespace WHERE p.relname = ? AND n.nspname = current_schema()", table.toLowerCase());
+        for (Map<String, Object> row : rows) {
+            String name = row.get("name").toString();
+            String bound = row.get("bound").toString();
+            if ("DEFAULT".equalsIgnoreCase(bound)) {
+                defaultPartition = new TablePartition(name, null, null, bound);
+            } else {
+                Matcher boundMatcher = PG_RANGE_BOUND.matcher(bound);
+                if (!boundMatcher.matches()) {
+                    LOGGER.warn("Bound {} of partition {} is not supported.", bound, name);
+                    return null;
+                }
+                partitions.add(new TablePartition(name,
+                        parsePartitionBound(boundMatcher.group(1), columnType),
+                        parsePartitionBound(boundMatcher.group(2), columnType),
+                        bound));
+            }
+        }
+
+        return new PartitionScheme(column, columnType, partitions, defaultPartition);
+    }
+
+    private PartitionScheme getOraclePartitionScheme(JdbcTemplate jdbcTemplate, String table, List<TableColumn> columns) throws SQLException {
+        String tableName = table.toUpperCase();
+        List<String> types = jdbcTemplate.queryForList(
+                "SELECT partitioning_type FROM user_part_tables WHERE table_name = ?", String.class, tableName);
+        if (types.isEmpty()) {
+            return null;
+        }
+        if (!"RANGE".equals(types.get(0))) {
+            LOGGER.warn("Partitioning type {} of table {} is not supported.", types.get(0), table);
+            return null;
+        }
+
+        List<String> keyColumns = jdbcTemplate.queryForList(
+                "SELECT column_name FROM user_part_key_columns WHERE name = ? AND object_type = 'TABLE' ORDER BY column_position", String.class, tableName);
+        if (keyColumns.size() != 1) {
+            LOGGER.warn("Table {} is partitioned on more than one column.", table);
+            return null;
+        }
+        String column = keyColumns.get(0);
+        int columnType = getColumnType(columns, table, column);
+
+        // each partition starts where the previous one ends
+        List<TablePartition> partitions = new LinkedList<>();
+        Comparable<?> lowerBound = null;
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT partition_name, high_value FROM user_tab_partitions WHERE table_name = ? ORDER BY partition_position", tableName);
+        for (Map<String, Object> row : rows) {
+            String highValue = row.get("high_value").toString();
+            Comparable<?> upperBound = parsePartitionBound(highValue, columnType);
+            partitions.add(new TablePartition(row.get("partition_name").toString(), lowerBound, upperBound,
+                    String.format("VALUES LESS THAN (%s)", highValue)));
+            lowerBound = upperBound;
+        }
+
+        return new PartitionScheme(column, columnType, partitions, null);
+    }
+
+    private int getColumnType(List<TableColumn> columns, String table, String column) throws SQLException {
+        for (TableColumn tableColumn : columns) {
+            if (tableColumn.getName().equalsIgnoreCase(column)) {
+                return tableColumn.getType();
+            }
+        }
+
+        throw new SQLException(String.format("Table %s has no column %s.", table, column));
+    }
+
+    /**
+     * Parse a partition bound literal as the database reports it, such as
+     * '2020-01-01 00:00:00', TO_DATE(' 2020-01-01 00:00:00', ...), 'ICD10' or
+     * MAXVALUE.
+     *
+     * @return the bound as a key comparable to ColumnValues.toKey or null if
+     * unbounded
+     */
+    private Comparable<?> parsePartitionBound(String literal, int columnType) throws SQLException {
+        literal = literal.trim();
+        if ("MINVALUE".equalsIgnoreCase(literal) || "MAXVALUE".equalsIgnoreCase(literal)) {
+            return null;
+        }
+
+        if (ColumnValues.isDateType(columnType)) {
+            Matcher matcher = DATE_LITERAL.matcher(literal);
+            if (matcher.find()) {
+                String time = (matcher.group(2) == null) ? "00:00:00" : matcher.group(2);
+                try {
+                    return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse(matcher.group(1) + " " + time).getTime();
+                } catch (ParseException exception) {
+                    throw new SQLException(String.format("Unable to parse partition bound %s.", literal), exception);
+                }
+            }
+        } else {
+            String value = (literal.length() >= 2 && literal.startsWith("'") && literal.endsWith("'"))
+                    ? literal.substring(1, literal.length() - 1).replace("''", "'")
+                    : literal;
+            Comparable<?> key = ColumnValues.toKey(value, columnType, null);
+            if (key != null) {
+                return key;
+            }
+        }
+
+        throw new SQLException(String.format("Unsupported partition bound %s.", literal));
+    }
+
+    private static final class PartitionBuffer {
+
+        private final List<String> lines;
+        private long numOfBytes;
+
+        private PartitionBuffer(int batchSize) {
+            this.lines = new ArrayList<>(batchSize);
+        }
+
+    }
+
+    private static final class PartitionBatch {
+
+        private static final PartitionBatch END = new PartitionBatch(null, null, null);
+
+        private final String table;
+        private final String partition;
+        private final List<String> lines;
+
+        private PartitionBatch(String table, String partition, List<String> lines) {
+            this.table = table;
+            this.partition = partition;
+            this.lines = lines;
+        }
+
+        private PartitionBatch(String table, TablePartition tablePartition, boolean isOracle, List<String> lines) {
+            this(
+                    (tablePartition == null || isOracle) ? table : tablePartition.getName(),
+                    (tablePartition == null || !isOracle) ? null : tablePartition.getName(),
+                    lines);
+        }
+
+    }
+
+    private long getSortMemoryBudget() {
+        return Math.min(DEFAULT_SORT_MEMORY_BUDGET, Runtime.getRuntime().maxMemory() / 4);
+    }
+
+    protected void batchInsert(
+            JdbcTemplate jdbcTemplate, String table, int batchSize, long batchByteBudget,
+            Path file, List<String> headers, LineReader lines, Pattern delimiter,
+            DateFormat dateFormat, boolean minimalLogging) throws SQLException, IOException {
+        batchInsert(jdbcTemplate, table, null, batchSize, batchByteBudget,
+                file, headers, lines, delimiter,
+                dateFormat, minimalLogging);
+    }
+
+    /**
+     * Insert the lines in batches, into the given (Oracle) partition of the
+     * table if the partition is not null.
+     */
+    protected void batchInsert(
+            JdbcTemplate jdbcTemplate, String table, String partition, int batchSize, long batchByteBudget,
+            Path file, List<String> headers, LineReader lines, Pattern delimiter,
+            DateFormat dateFormat, boolean minimalLogging) throws SQLException, IOException {
+        DataSource dataSource = jdbcTemplate.getDataSource();
         if (dataSource != null) {
             try (Connection conn = dataSource.getConnection()) {
-                // create prepared statement
-                String sql = createInsertStatement(conn.getSchema(), table.toLowerCase(), fileSysService.getHeaders(file));
-                PreparedStatement stmt = conn.prepareStatement(sql);
+                batchInsert(dataSource, conn, table, partition, batchSize, batchByteBudget,
+                        file, headers, lines, delimiter,
+                        dateFormat, minimalLogging);
+            }
+        }
+    }
 
-                // get columnTypes
-                int count = 0;
-                int[] columnTypes = getColumnTypes(stmt.getParameterMetaData());
-                try (BufferedReader reader = Files.newBufferedReader(file)) {
-                    // skip header
-                    reader.readLine();
+    /**
+     * Insert the rows of the file on the given connection, so that the insert
+     * is part of the caller's transaction.
+     *
+     * @param dataSource the datasource of the connection
+     * @param conn
+     * @param table
+     * @param batchSize
+     * @param file
+     * @param delimiter
+     * @param dateFormat
+     * @throws SQLException
+     * @throws IOException
+     */
+    protected void batchInsert(
+            DataSource dataSource, Connection conn, String table, int batchSize,
+            Path file, Pattern delimiter,
+            DateFormat dateFormat) throws SQLException, IOException {
+        List<String> headers = fileSysService.getHeaders(file);
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            // skip header
+            reader.readLine();
 
-                    for (String line = reader.readLine(); line != null; line = reader.readLine()) {
-                        line = line.trim();
+            batchInsert(dataSource, conn, table, null, batchSize, DEFAULT_BATCH_BYTE_BUDGET,
+                    file, headers, reader::readLine, delimiter,
+                    dateFormat, false);
+        }
+    }
 
-                        // skip lines that are commented out
-                        if (line.startsWith("--")) {
-                            continue;
-                        }
+    private void batchInsert(
+            DataSource dataSource, Connection conn, String table, String partition, int batchSize, long batchByteBudget,
+            Path file, List<String> headers, LineReader lines, Pattern delimiter,
+            DateFormat dateFormat, boolean minimalLogging) throws SQLException, IOException {
+        // date formats are not thread-safe and the shared ones may be used by concurrent loads
+        dateFormat = (DateFormat) dateFormat.clone();
 
-                        try {
-                            String[] values = delimiter.split(line);
-
-                            setColumns(stmt, columnTypes, values, dateFormat);
-
-                            // add null columns not provided
-                            if (values.length < columnTypes.length) {
-                                for (int i = values.length; i < columnTypes.length; i++) {
-                                    stmt.setNull(i + 1, Types.NULL);
-                                }
-                            }
-                        } catch (Exception exception) {
-                            LOGGER.error("", exception);
-                        }
+        // create prepared statement
+        String target = (partition == null)
+                ? table.toLowerCase()
+                : String.format("%s PARTITION (%s)", table.toLowerCase(), partition);
+        String sql = createInsertStatement(
+                conn.getMetaData().getDatabaseProductName(), conn.getSchema(), target,
+                headers, minimalLogging);
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            // get columnTypes
+            int count = 0;
+            long numOfBytes = 0;
+            long numOfSkippedRows = 0;
+            int[] columnTypes = getColumnTypes(tableSchemaCache.getColumns(dataSource, conn, table), table, headers);
+            StringDictionary[] dictionaries = createStringDictionaries(columnTypes);
+            DelimitedRecord record = new DelimitedRecord(delimiter);
+            for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+                line = line.trim();
 
-                        stmt.addBatch();
-                        count++;
-                        if (count == batchSize) {
-                            stmt.executeBatch();
-                            stmt.clearBatch();
-                            count = 0;
+                // skip lines that are commented out
+                if (line.isEmpty() || line.startsWith("--")) {
+                    continue;
+                }
+
+                try {
+                    record.parse(line);
+
+                    setColumns(stmt, columnTypes, dictionaries, record, dateFormat);
+
+                    // add null columns not provided
+                    if (record.size() < columnTypes.length) {
+                        for (int i = record.size(); i < columnTypes.length; i++) {
+                            stmt.setNull(i + 1, Types.NULL);
                         }
                     }
+                } catch (Exception exception) {
+                    // the row must not be inserted with the values bound for the previous row
+                    LOGGER.error(String.format("Unable to bind row of %s: %s", file, line), exception);
+                    stmt.clearParameters();
+                    numOfSkippedRows++;
+                    continue;
                 }
-                if (count > 0) {
+
+                stmt.addBatch();
+                count++;
+                numOfBytes += (long) line.length() * Character.BYTES;
+                if (count == batchSize || numOfBytes >= batchByteBudget) {
                     stmt.executeBatch();
                     stmt.clearBatch();
                     count = 0;
+                    numOfBytes = 0;
                 }
             }
+            if (count > 0) {
+                stmt.executeBatch();
+                stmt.clearBatch();
+                count = 0;
+            }
+            if (numOfSkippedRows > 0) {
+                LOGGER.warn("Skipped {} rows of {} that could not be bound to the columns of table {}.", numOfSkippedRows, file, table);
+            }
+
+            logStringDictionaries(file, headers, dictionaries);
         }
     }
 
-    protected void setColumns(PreparedStatement stmt, int[] columnTypes, String[] values, DateFormat dateFormat) throws SQLException, ParseException, NumberFormatException {
-        for (int i = 0; i < values.length; i++) {
+    /**
+     * Create a string dictionary for each character column. Character values
+     * are repeated heavily in most columns (codes, flags, table names), so
+     * sharing one instance per distinct value reduces both allocation and
+     * the heap held by a batch. The dictionaries of high-cardinality columns
+     * turn themselves off.
+     *
+     * @param columnTypes
+     * @return an array with a dictionary for each character column and null
+     * for the others
+     */
+    protected StringDictionary[] createStringDictionaries(int[] columnTypes) {
+        StringDictionary[] dictionaries = new StringDictionary[columnTypes.length];
+        for (int i = 0; i < columnTypes.length; i++) {
+            switch (columnTypes[i]) {
+                case Types.CHAR:
+                case Types.VARCHAR:
+                case Types.NCHAR:
+                case Types.NVARCHAR:
+                    dictionaries[i] = new StringDictionary();
+                    break;
+            }
+        }
+
+        return dictionaries;
+    }
+
+    private void logStringDictionaries(Path file, List<String> headers, StringDictionary[] dictionaries) {
+        if (!LOGGER.isDebugEnabled()) {
+            return;
+        }
+
+        for (int i = 0; i < dictionaries.length; i++) {
+            StringDictionary dictionary = dictionaries[i];
+            if (dictionary != null) {
+                LOGGER.debug("{} {}: {}, {} entries, {} of {} lookups hit ({}%)",
+                        file.getFileName(), headers.get(i),
+                        dictionary.isEnabled() ? "on" : "off",
+                        dictionary.size(), dictionary.getHits(), dictionary.getLookups(),
+                        String.format("%.1f", dictionary.getHitRate() * 100));
+            }
+        }
+    }
+
+    protected void setColumns(PreparedStatement stmt, int[] columnTypes, StringDictionary[] dictionaries, DelimitedRecord record, DateFormat dateFormat) throws SQLException, ParseException, NumberFormatException {
+        for (int i = 0; i < record.size(); i++) {
             int columnIndex = i + 1;
-            String value = values[i].trim();
-            if (value.isEmpty()) {
+            if (record.isEmpty(i)) {
                 stmt.setNull(columnIndex, Types.NULL);
+            } else if (i >= columnTypes.length) {
+                throw new SQLDataException(String.format("Too many values.  Expected %d but found %d.", columnTypes.length, record.size()));
             } else {
                 switch (columnTypes[i]) {
-                    case Types.CHAR:
-                    case Types.VARCHAR:
                     case Types.LONGVARCHAR:
                     case Types.CLOB:
-                        stmt.setString(columnIndex, value);
-                        break;
-                    case Types.TINYINT:
-                        stmt.setByte(columnIndex, Byte.parseByte(value));
-                        break;
-                    case Types.SMALLINT:
-                        stmt.setShort(columnIndex, Short.parseShort(value));
-                        break;
-                    case Types.INTEGER:
-                        stmt.setInt(columnIndex, Integer.parseInt(value));
-                        break;
-                    case Types.BIGINT:
-                        stmt.setLong(columnIndex, Long.parseLong(value));
-                        break;
-                    case Types.REAL:
-                    case Types.FLOAT:
-                        stmt.setFloat(columnIndex, Float.parseFloat(value));
-                        break;
-                    case Types.DOUBLE:
-                        stmt.setDouble(columnIndex, Double.parseDouble(value));
-                        break;
-                    case Types.NUMERIC:
-                        stmt.setBigDecimal(columnIndex, new BigDecimal(value));
-                        break;
-                    case Types.DATE:
-                        stmt.setDate(columnIndex, new Date(dateFormat.parse(value).getTime()));
-                        break;
-                    case Types.TIME:
-                        stmt.setTime(columnIndex, new Time(dateFormat.parse(value).getTime()));
-                        break;
-                    case Types.TIMESTAMP:
-                        stmt.setTimestamp(columnIndex, new Timestamp(dateFormat.parse(value).getTime()));
-                        break;
-                    case Types.BIT:
-                        stmt.setBoolean(columnIndex, value.equals("1"));
-                        break;
-                    case Types.VARBINARY:
-                    case Types.BINARY:
-                        stmt.setBytes(columnIndex, value.getBytes());
+                    case Types.LONGNVARCHAR:
+                    case Types.NCLOB:
+                        // stream large text from the line instead of copying it,
+                        // with the int length; pgjdbc does not support the long one
+                        int length = record.getLength(i);
+                        try {
+                            stmt.setCharacterStream(columnIndex, record.getReader(i), length);
+                        } catch (SQLFeatureNotSupportedException exception) {
+                            stmt.setString(columnIndex, record.getString(i));
+                        }
                         break;
+                    default:
+                        String value = (dictionaries[i] == null)
+                                ? record.getString(i)
+                                : record.getString(i, dictionaries[i]);
+                        setColumn(stmt, columnIndex, columnTypes[i], value, dateFormat);
                 }
             }
         }
     }
 
+    protected void setColumn(PreparedStatement stmt, int columnIndex, int columnType, String value, DateFormat dateFormat) throws SQLException, ParseException, NumberFormatException {
+        switch (columnType) {
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.CLOB:
+            case Types.LONGNVARCHAR:
+            case Types.NCLOB:
+                stmt.setString(columnIndex, value);
+                break;
+            case Types.TINYINT:
+                stmt.setByte(columnIndex, Byte.parseByte(value));
+                break;
+            case Types.SMALLINT:
+                stmt.setShort(columnIndex, Short.parseShort(value));
+                break;
+            case Types.INTEGER:
+                stmt.setInt(columnIndex, Integer.parseInt(value));
+                break;
+            case Types.BIGINT:
+                stmt.setLong(columnIndex, Long.parseLong(value));
+                break;
+            case Types.REAL:
+            case Types.FLOAT:
+                stmt.setFloat(columnIndex, Float.parseFloat(value));
+                break;
+            case Types.DOUBLE:
+                stmt.setDouble(columnIndex, Double.parseDouble(value));
+                break;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                stmt.setBigDecimal(columnIndex, new BigDecimal(value));
+                break;
+            case Types.DATE:
+                stmt.setDate(columnIndex, new Date(dateFormat.parse(value).getTime()));
+                break;
+            case Types.TIME:
+                stmt.setTime(columnIndex, new Time(dateFormat.parse(value).getTime()));
+                break;
+            case Types.TIMESTAMP:
+                stmt.setTimestamp(columnIndex, new Timestamp(dateFormat.parse(value).getTime()));
+                break;
+            case Types.BIT:
+                stmt.setBoolean(columnIndex, value.equals("1"));
+                break;
+            case Types.VARBINARY:
+            case Types.BINARY:
+                stmt.setBytes(columnIndex, value.getBytes());
+                break;
+        }
+    }
+
     protected Set<String> getColumnData(JdbcTemplate jdbcTemplate, String table, String column) throws SQLException {
         Set<String> data = new HashSet<>();
+        forEachColumnValue(jdbcTemplate, table, column, DEFAULT_FETCH_SIZE,
+                value -> data.add(value.trim().toLowerCase()));
+
+        return data;
+    }
 
+    /**
+     * Stream the non-null values of the column to the consumer, fetching
+     * fetchSize rows at a time instead of reading the whole result into
+     * memory.
+     *
+     * @param jdbcTemplate
+     * @param table
+     * @param column
+     * @param fetchSize
+     * @param consumer
+     * @throws SQLException
+     */
+    protected void forEachColumnValue(JdbcTemplate jdbcTemplate, String table, String column, int fetchSize, Consumer<String> consumer) throws SQLException {
         DataSource dataSource = jdbcTemplate.getDataSource();
         if (dataSource != null) {
             try (Connection conn = dataSource.getConnection()) {
-                String query = String.format("SELECT %s FROM %s.%s", column, conn.getSchema(), table.toLowerCase());
-                Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(query);
-                while (rs.next()) {
-                    data.add(rs.getString(1).trim().toLowerCase());
+                // PostgreSQL only uses a cursor for the fetch size inside of a transaction
+                boolean autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.setFetchSize(fetchSize);
+
+                    String query = String.format("SELECT %s FROM %s.%s WHERE %s IS NOT NULL", column, conn.getSchema(), table.toLowerCase(), column);
+                    try (ResultSet rs = stmt.executeQuery(query)) {
+                        while (rs.next()) {
+                            consumer.accept(rs.getString(1));
+                        }
+                    }
+                } finally {
+                    conn.rollback();
+                    conn.setAutoCommit(autoCommit);
                 }
             }
+        }
+    }
 
+    /**
+     * Read the values of the referenced column into a set for checking
+     * foreign keys while loading.
+     *
+     * @param jdbcTemplate
+     * @param table
+     * @param column
+     * @return
+     * @throws SQLException
+     */
+    protected ReferenceSet getReferenceSet(JdbcTemplate jdbcTemplate, String table, String column) throws SQLException {
+        long count = 0;
+        DataSource dataSource = jdbcTemplate.getDataSource();
+        if (dataSource != null) {
+            try (Connection conn = dataSource.getConnection();
+                    Statement stmt = conn.createStatement();
+                    ResultSet rs = stmt.executeQuery(String.format("SELECT COUNT(*) FROM %s.%s", conn.getSchema(), table.toLowerCase()))) {
+                if (rs.next()) {
+                    count = rs.getLong(1);
+                }
+            }
         }
 
-        return data;
+        ReferenceSet references = new ReferenceSet(count);
+        forEachColumnValue(jdbcTemplate, table, column, DEFAULT_FETCH_SIZE, references::add);
+        LOGGER.info("Read {} distinct values of {}.{} ({} bytes off-heap).", references.size(), table, column, references.getOffHeapBytes());
+
+        return references;
     }
 
-    protected int[] getColumnTypes(ParameterMetaData metadata) throws SQLException {
-        int[] types = new int[metadata.getParameterCount()];
+    /**
+     * Insert the rows of the file whose key column value is in the reference
+     * set. The other rows, the orphans, are written to a side file named after
+     * the file with an .orphans extension, and their counts by key prefix are
+     * logged.
+     *
+     * @param jdbcTemplate
+     * @param table
+     * @param batchSize
+     * @param file
+     * @param delimiter
+     * @param dateFormat
+     * @param keyColumn
+     * @param references
+     * @param minimalLogging
+     * @return the number of orphans
+     * @throws SQLException
+     * @throws IOException
+     */
+    protected long referenceCheckedBatchInsert(
+            JdbcTemplate jdbcTemplate, String table, int batchSize,
+            Path file, Pattern delimiter,
+            DateFormat dateFormat, String keyColumn, ReferenceSet references,
+            boolean minimalLogging) throws SQLException, IOException {
+        List<String> headers = fileSysService.getHeaders(file);
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String header = reader.readLine();
+
+            try (ReferenceCheckingLineReader lines = createReferenceCheckingLineReader(
+                    file, header, headers, reader::readLine, delimiter, keyColumn, references)) {
+                batchInsert(jdbcTemplate, table, batchSize, DEFAULT_BATCH_BYTE_BUDGET,
+                        file, headers, lines, delimiter,
+                        dateFormat, minimalLogging);
+                logOrphans(file, keyColumn, lines);
+
+                return lines.getNumOfOrphans();
+            }
+        }
+    }
+
+    /**
+     * Wrap the lines of the file so that the orphans are written to a side
+     * file named after the file with an .orphans extension.
+     */
+    private ReferenceCheckingLineReader createReferenceCheckingLineReader(
+            Path file, String header, List<String> headers, LineReader lines, Pattern delimiter,
+            String keyColumn, ReferenceSet references) throws SQLException, IOException {
+        int keyIndex = headers.indexOf(keyColumn.toLowerCase());
+        if (keyIndex < 0) {
+            throw new SQLException(String.format("File %s has no column %s.", file, keyColumn));
+        }
+
+        Path orphanFile = file.resolveSibling(file.getFileName().toString() + ".orphans");
+        Files.deleteIfExists(orphanFile);
+
+        return new ReferenceCheckingLineReader(lines, delimiter, keyIndex, references, orphanFile, header);
+    }
+
+    private void logOrphans(Path file, String keyColumn, ReferenceCheckingLineReader lines) {
+        if (lines.getNumOfOrphans() > 0) {
+            LOGGER.warn("Skipped {} rows of {} with no matching {}, written to {}: {}",
+                    lines.getNumOfOrphans(), file, keyColumn, lines.getOrphanFile(), lines.getOrphanCounts());
+        }
+    }
+
+    /**
+     * Get the column types in the order of the file headers.
+     *
+     * @param tableColumns
+     * @param table
+     * @param headers
+     * @return
+     * @throws SQLException if the table does not exist or a header does not
+     * match any of its columns
+     */
+    protected int[] getColumnTypes(List<TableColumn> tableColumns, String table, List<String> headers) throws SQLException {
+        if (tableColumns.isEmpty()) {
+            throw new SQLException(String.format("Unable to get the columns of table %s.", table));
+        }
+
+        int[] types = new int[headers.size()];
         for (int i = 0; i < types.length; i++) {
-            types[i] = metadata.getParameterType(i + 1);
+            String header = headers.get(i).replaceAll("\"", "");
+            types[i] = tableColumns.stream()
+                    .filter(column -> column.getName().equalsIgnoreCase(header))
+                    .mapToInt(TableColumn::getType)
+                    .findFirst()
+                    .orElseThrow(() -> new SQLException(String.format("Table %s has no column %s.", table, header)));
         }
 
         return types;
@@ -317,6 +1228,345 @@ public abstract class AbstractDBService {
         return String.format("INSERT INTO %s.%s (%s) VALUES (%s)", schema, tableName, columns, placeholder);
     }
 
+    /**
+     * Create an insert statement with the vendor's hint for a minimally-logged
+     * bulk load, if requested.
+     *
+     * @param vendor
+     * @param schema
+     * @param tableName
+     * @param columnNames
+     * @param minimalLogging
+     * @return
+     */
+    protected String createInsertStatement(String vendor, String schema, String tableName, List<String> columnNames, boolean minimalLogging) {
+        if (!minimalLogging) {
+            return createInsertStatement(schema, tableName, columnNames);
+        }
+
+        String columns = columnNames.stream().collect(Collectors.joining(",")).replaceAll("\"", "");
+        String placeholder = IntStream.range(0, columnNames.size()).mapToObj(e -> "?").collect(Collectors.joining(","));
+        switch (vendor) {
+            case "Oracle":
+                // direct-path insert for INSERT ... VALUES
+                return String.format("INSERT /*+ APPEND_VALUES */ INTO %s.%s (%s) VALUES (%s)", schema, tableName, columns, placeholder);
+            default:
+                return createInsertStatement(schema, tableName, columnNames);
+        }
+    }
+
+    /**
+     * Load the table, with minimal logging if requested and possible. The
+     * load is told whether minimal logging is in effect, and logging is
+     * restored afterward even if the load fails; a failure to restore it is
+     * then added to the load's exception.
+     *
+     * @param jdbcTemplate
+     * @param table
+     * @param minimalLogging
+     * @param tableLoad
+     * @throws SQLException
+     * @throws IOException
+     */
+    protected void loadTable(JdbcTemplate jdbcTemplate, String table, boolean minimalLogging, TableLoad tableLoad) throws SQLException, IOException {
+        String setting = minimalLogging ? enableMinimalLogging(jdbcTemplate, table) : null;
+        try {
+            tableLoad.load(setting != null);
+        } catch (SQLException | IOException | RuntimeException exception) {
+            if (setting != null) {
+                try {
+                    restoreLogging(jdbcTemplate, table, setting);
+                } catch (SQLException | RuntimeException restoreException) {
+                    exception.addSuppressed(restoreException);
+                }
+            }
+            throw exception;
+        }
+
+        if (setting != null) {
+            restoreLogging(jdbcTemplate, table, setting);
+        }
+    }
+
+    /**
+     * Switch the table to minimal logging before a bulk load.
+     * <ul>
+     * <li>PostgreSQL: the table is set to UNLOGGED, only if it is empty.
+     * Switching a populated table rewrites it, both ways.  A table left
+     * UNLOGGED by an earlier load is restored after this one.</li>
+     * <li>Oracle: the table is set to NOLOGGING.</li>
+     * </ul>
+     * SQL Server is not supported: its minimal logging needs the whole
+     * database in the BULK_LOGGED recovery model, which breaks the log backup
+     * chain for everyone else, and batched INSERT ... VALUES is fully logged
+     * anyway.
+     *
+     * The load must be followed by restoreLogging, even if it fails.
+     *
+     * @param jdbcTemplate
+     * @param table
+     * @return the setting to pass to restoreLogging or null if the table is
+     * loaded with full logging
+     * @throws SQLException
+     */
+    protected String enableMinimalLogging(JdbcTemplate jdbcTemplate, String table) throws SQLException {
+        String vendor = getDatabaseVendor(jdbcTemplate);
+        switch (vendor) {
+            case "PostgreSQL":
+                // a table left unlogged by a failed load must still be restored
+                if ("u".equals(jdbcTemplate.queryForObject(
+                        "SELECT relpersistence FROM pg_class WHERE oid = CAST(? AS regclass)", String.class, table))) {
+                    LOGGER.warn("Table {} is already unlogged.  Logging is restored after the load.", table);
+                    return "LOGGED";
+                }
+                if (!jdbcTemplate.queryForList(String.format("SELECT 1 FROM %s LIMIT 1", table), Integer.class).isEmpty()) {
+                    LOGGER.warn("Table {} is not empty.  It is loaded with full logging.", table);
+                    return null;
+                }
+                jdbcTemplate.execute(String.format("ALTER TABLE %s SET UNLOGGED", table));
+                return "LOGGED";
+            case "Oracle":
+                jdbcTemplate.execute(String.format("ALTER TABLE %s NOLOGGING", table));
+                return "LOGGING";
+            default:
+                LOGGER.warn("Minimal logging is not supported for {}.  Table {} is loaded with full logging.", vendor, table);
+                return null;
+        }
+    }
+
+    /**
+     * Restore the durability changed by enableMinimalLogging and verify that
+     * it is in effect.
+     *
+     * @param jdbcTemplate
+     * @param table
+     * @param setting the value returned by enableMinimalLogging
+     * @throws SQLException if durability could not be restored
+     */
+    protected void restoreLogging(JdbcTemplate jdbcTemplate, String table, String setting) throws SQLException {
+        if (setting == null) {
+            return;
+        }
+
+        String actual;
+        switch (getDatabaseVendor(jdbcTemplate)) {
+            case "PostgreSQL":
+                jdbcTemplate.execute(String.format("ALTER TABLE %s SET LOGGED", table));
+                actual = "p".equals(jdbcTemplate.queryForObject(
+                        "SELECT relpersistence FROM pg_class WHERE oid = CAST(? AS regclass)", String.class, table))
+                        ? "LOGGED"
+                        : "UNLOGGED";
+                break;
+            case "Oracle":
+                jdbcTemplate.execute(String.format("ALTER TABLE %s LOGGING", table));
+                actual = "YES".equals(jdbcTemplate.queryForObject(
+                        "SELECT logging FROM user_tables WHERE table_name = ?", String.class, table.toUpperCase()))
+                        ? "LOGGING"
+                        : "NOLOGGING";
+                break;
+            default:
+                return;
+        }
+
+        if (!setting.equals(actual)) {
+            throw new SQLException(String.format("Unable to restore logging of table %s: expected %s but was %s.", table, setting, actual));
+        }
+        LOGGER.info("Restored logging of table {} to {}.", table, actual);
+    }
+
+    /**
+     * Refresh the optimizer statistics of the table and its indexes.
+     *
+     * @param jdbcTemplate
+     * @param table
+     */
+    protected void updateStatistics(JdbcTemplate jdbcTemplate, String table) {
+        String vendor = getDatabaseVendor(jdbcTemplate);
+        switch (vendor) {
+            case "PostgreSQL":
+                jdbcTemplate.execute(String.format("ANALYZE %s", table));
+                break;
+            case "Oracle":
+                jdbcTemplate.update("BEGIN DBMS_STATS.GATHER_TABLE_STATS(ownname => USER, tabname => ?, cascade => TRUE); END;", table.toUpperCase());
+                break;
+            case "Microsoft SQL Server":
+                jdbcTemplate.execute(String.format("UPDATE STATISTICS %s", table));
+                break;
+            default:
+                LOGGER.warn("Updating statistics is not supported for {}.", vendor);
+                return;
+        }
+        LOGGER.info("Updated statistics of table {}.", table);
+    }
+
+    /**
+     * Delete the rows of the table whose column has one of the values, in one
+     * batch.
+     *
+     * @param conn
+     * @param table
+     * @param column
+     * @param values
+     * @throws SQLException
+     */
+    protected void deleteRows(Connection conn, String table, String column, Collection<String> values) throws SQLException {
+        if (!values.isEmpty()) {
+            try (PreparedStatement stmt = conn.prepareStatement(createDeleteStatement(conn.getSchema(), table.toLowerCase(), column))) {
+                for (String value : values) {
+                    stmt.setString(1, value);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Get the manifest of the files loaded into the table, creating the
+     * manifest table if it does not exist.
+     *
+     * @param jdbcTemplate
+     * @param table
+     * @return the manifest entries by file name
+     * @throws SQLException
+     * @throws IOException
+     */
+    protected Map<String, FileManifestEntry> getManifest(JdbcTemplate jdbcTemplate, String table) throws SQLException, IOException {
+        DataSource dataSource = jdbcTemplate.getDataSource();
+        if (tableSchemaCache.getColumns(dataSource, MANIFEST_TABLE).isEmpty()) {
+            Map<String, String> parameters = new HashMap<>();
+            parameters.put("table_name", MANIFEST_TABLE);
+
+            sqlScriptService.execute(jdbcTemplate, getDatabaseVendor(jdbcTemplate), MANIFEST_TABLE_SCRIPT, parameters);
+            tableSchemaCache.evict(dataSource, MANIFEST_TABLE);
+        }
+
+        Map<String, FileManifestEntry> manifest = new HashMap<>();
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(String.format(
+                        "SELECT file_name, file_size, last_modified, content_hash, sourcesystem_cd FROM %s.%s WHERE table_name = ?",
+                        conn.getSchema(), MANIFEST_TABLE))) {
+            stmt.setString(1, table.toLowerCase());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String codes = rs.getString("sourcesystem_cd");
+                    FileManifestEntry entry = new FileManifestEntry(
+                            rs.getString("file_name"),
+                            rs.getLong("file_size"),
+                            rs.getLong("last_modified"),
+                            Long.parseUnsignedLong(rs.getString("content_hash"), 16),
+                            (codes == null) ? null : new HashSet<>(Arrays.asList(codes.split(MANIFEST_CODE_SEPARATOR))));
+                    manifest.put(entry.getFileName(), entry);
+                }
+            }
+        }
+
+        return manifest;
+    }
+
+    protected void saveManifestEntry(Connection conn, String table, FileManifestEntry entry) throws SQLException {
+        deleteManifestEntry(conn, table, entry.getFileName());
+
+        // codes too long for the column are recorded as unknown
+        String codes = (entry.getSourceSystemCodes() == null)
+                ? null
+                : String.join(MANIFEST_CODE_SEPARATOR, entry.getSourceSystemCodes());
+        if (codes != null && codes.length() > MAX_MANIFEST_CODES_LENGTH) {
+            codes = null;
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(String.format(
+                "INSERT INTO %s.%s (table_name, file_name, file_size, last_modified, content_hash, sourcesystem_cd) VALUES (?, ?, ?, ?, ?, ?)",
+                conn.getSchema(), MANIFEST_TABLE))) {
+            stmt.setString(1, table.toLowerCase());
+            stmt.setString(2, entry.getFileName());
+            stmt.setLong(3, entry.getFileSize());
+            stmt.setLong(4, entry.getLastModified());
+            stmt.setString(5, String.format("%016x", entry.getContentHash()));
+            stmt.setString(6, codes);
+            stmt.executeUpdate();
+        }
+    }
+
+    protected void deleteManifestEntry(Connection conn, String table, String fileName) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(String.format(
+                "DELETE FROM %s.%s WHERE table_name = ? AND file_name = ?", conn.getSchema(), MANIFEST_TABLE))) {
+            stmt.setString(1, table.toLowerCase());
+            stmt.setString(2, fileName);
+            stmt.executeUpdate();
+        }
+    }
+
+    protected void clearManifest(Connection conn, String table) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(String.format(
+                "DELETE FROM %s.%s WHERE table_name = ?", conn.getSchema(), MANIFEST_TABLE))) {
+            stmt.setString(1, table.toLowerCase());
+            stmt.executeUpdate();
+        }
+    }
+
+    protected void dropTable(DataSource dataSource, String table) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute(String.format("DROP TABLE %s.%s", conn.getSchema(), table.toLowerCase()));
+        } finally {
+            tableSchemaCache.evict(dataSource, table);
+        }
+    }
+
+    /**
+     * Replace the table with the staging table: the table is dropped and the
+     * staging table is renamed to it. On PostgreSQL and SQL Server this is
+     * part of the caller's transaction. Oracle commits each statement, so
+     * there the table is briefly missing.
+     *
+     * @param conn
+     * @param table
+     * @param stagingTable
+     * @throws SQLException
+     */
+    protected void replaceTable(Connection conn, String table, String stagingTable) throws SQLException {
+        String schema = conn.getSchema();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(String.format("DROP TABLE %s.%s", schema, table.toLowerCase()));
+            if ("Microsoft SQL Server".equals(conn.getMetaData().getDatabaseProductName())) {
+                stmt.execute(String.format("EXEC sp_rename '%s.%s', '%s'", schema, stagingTable.toLowerCase(), table.toLowerCase()));
+            } else {
+                stmt.execute(String.format("ALTER TABLE %s.%s RENAME TO %s", schema, stagingTable.toLowerCase(), table.toLowerCase()));
+            }
+        }
+    }
+
+    /**
+     * Run the work on one connection in one transaction. The transaction is
+     * committed if the work succeeds and rolled back otherwise; a failure to
+     * roll back is added to the failure of the work.
+     *
+     * @param dataSource
+     * @param transaction
+     * @throws SQLException
+     * @throws IOException
+     */
+    protected void runInTransaction(DataSource dataSource, Transaction transaction) throws SQLException, IOException {
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                transaction.run(conn);
+                conn.commit();
+            } catch (SQLException | IOException | RuntimeException exception) {
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackException) {
+                    exception.addSuppressed(rollbackException);
+                }
+                throw exception;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
     protected String createDeleteStatement(String schema, String tableName, String columnName) {
         return String.format("DELETE FROM  %s.%s WHERE %s = ?", schema, tableName, columnName);
     }
@@ -334,4 +1584,24 @@ public abstract class AbstractDBService {
         return "Unknown";
     }
 
+    /**
+     * A load of a table, told whether minimal logging is in effect.
+     */
+    @FunctionalInterface
+    protected interface TableLoad {
+
+        void load(boolean minimalLogging) throws SQLException, IOException;
+
+    }
+
+    /**
+     * Work done on one connection in one transaction.
+     */
+    @FunctionalInterface
+    protected interface Transaction {
+
+        void run(Connection conn) throws SQLException, IOException;
+
+    }
+
 }
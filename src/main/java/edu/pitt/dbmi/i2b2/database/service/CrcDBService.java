@@ -19,10 +19,13 @@
 package edu.pitt.dbmi.i2b2.database.service;
 
 import edu.pitt.dbmi.i2b2.database.Delimiters;
+import edu.pitt.dbmi.i2b2.database.model.FileProfile;
 import edu.pitt.dbmi.i2b2.database.util.DateFormatters;
+import edu.pitt.dbmi.i2b2.database.util.ReferenceSet;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.sql.SQLException;
+import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
@@ -39,18 +42,203 @@ public class CrcDBService extends AbstractDBService {
 
     private static final String OBSERVATION_FACT_TABLE = "observation_fact";
     private static final String CONCEPT_DIMENSION_TABLE = "concept_dimension";
+    private static final String CONCEPT_CD_COLUMN = "concept_cd";
 
     private final JdbcTemplate crcJdbcTemplate;
 
     @Autowired
-    public CrcDBService(JdbcTemplate crcJdbcTemplate, FileSysService fileSysService) {
-        super(fileSysService);
+    public CrcDBService(JdbcTemplate crcJdbcTemplate, FileSysService fileSysService, TableSchemaCache tableSchemaCache, SqlScriptService sqlScriptService) {
+        super(fileSysService, tableSchemaCache, sqlScriptService);
         this.crcJdbcTemplate = crcJdbcTemplate;
     }
 
     public void insertIntoObservationFactTable(Path file) throws SQLException, IOException {
-        batchInsert(crcJdbcTemplate, OBSERVATION_FACT_TABLE, DEFAULT_BATCH_SIZE,
+        insertIntoObservationFactTable(file, false);
+    }
+
+    /**
+     * Insert the observation facts. With minimal logging, the table is
+     * switched to the vendor's minimal-logging mode for the load and back to
+     * full logging afterward, where supported: an empty table on PostgreSQL,
+     * or Oracle. Only use it for an initial load; rows inserted while logging
+     * is off are not recoverable from the log.
+     *
+     * @param file
+     * @param minimalLogging
+     * @throws SQLException
+     * @throws IOException
+     */
+    public void insertIntoObservationFactTable(Path file, boolean minimalLogging) throws SQLException, IOException {
+        insertIntoObservationFactTable(file, minimalLogging, false);
+    }
+
+    /**
+     * Insert the observation facts, optionally checking every concept_cd
+     * against concept_dimension first. Facts with no matching concept are
+     * invisible to i2b2 queries, so they are not inserted but written to a
+     * side file next to the file, and counted by concept prefix.
+     *
+     * @param file
+     * @param minimalLogging
+     * @param checkConceptCodes
+     * @throws SQLException
+     * @throws IOException
+     */
+    public void insertIntoObservationFactTable(Path file, boolean minimalLogging, boolean checkConceptCodes) throws SQLException, IOException {
+        insertIntoObservationFactTable(file, DEFAULT_BATCH_SIZE, minimalLogging, checkConceptCodes);
+    }
+
+    /**
+     * Insert the observation facts in batches of the given size, such as the
+     * one recommended by the profile of the file.
+     *
+     * @param file
+     * @param batchSize
+     * @param minimalLogging
+     * @param checkConceptCodes
+     * @throws SQLException
+     * @throws IOException
+     */
+    public void insertIntoObservationFactTable(Path file, int batchSize, boolean minimalLogging, boolean checkConceptCodes) throws SQLException, IOException {
+        ReferenceSet conceptCodes = checkConceptCodes
+                ? getReferenceSet(crcJdbcTemplate, CONCEPT_DIMENSION_TABLE, CONCEPT_CD_COLUMN)
+                : null;
+
+        loadTable(crcJdbcTemplate, OBSERVATION_FACT_TABLE, minimalLogging,
+                isMinimallyLogged -> insertIntoObservationFactTable(file, batchSize, isMinimallyLogged, conceptCodes));
+    }
+
+    private void insertIntoObservationFactTable(Path file, int batchSize, boolean minimalLogging, ReferenceSet conceptCodes) throws SQLException, IOException {
+        if (conceptCodes == null) {
+            batchInsert(crcJdbcTemplate, OBSERVATION_FACT_TABLE, batchSize,
+                    file, Delimiters.TAB, DateFormatters.OBSERVATION_FACTS_DATE_FORMATTER, minimalLogging);
+        } else {
+            referenceCheckedBatchInsert(crcJdbcTemplate, OBSERVATION_FACT_TABLE, batchSize,
+                    file, Delimiters.TAB, DateFormatters.OBSERVATION_FACTS_DATE_FORMATTER,
+                    CONCEPT_CD_COLUMN, conceptCodes, minimalLogging);
+        }
+    }
+
+    /**
+     * Insert the observation facts sorted by the given columns, for example
+     * concept_cd, patient_num and start_date. Loading in index order keeps
+     * index maintenance nearly append-only and clusters the table for the
+     * i2b2 panel queries.
+     *
+     * @param file
+     * @param sortColumns
+     * @param minimalLogging
+     * @throws SQLException
+     * @throws IOException
+     */
+    public void insertSortedIntoObservationFactTable(Path file, List<String> sortColumns, boolean minimalLogging) throws SQLException, IOException {
+        insertSortedIntoObservationFactTable(file, sortColumns, DEFAULT_BATCH_SIZE, minimalLogging, false);
+    }
+
+    /**
+     * Insert the observation facts sorted by the given columns in batches of
+     * the given size, optionally checking every concept_cd against
+     * concept_dimension first.
+     *
+     * @param file
+     * @param sortColumns
+     * @param batchSize
+     * @param minimalLogging
+     * @param checkConceptCodes
+     * @throws SQLException
+     * @throws IOException
+     */
+    public void insertSortedIntoObservationFactTable(Path file, List<String> sortColumns, int batchSize, boolean minimalLogging, boolean checkConceptCodes) throws SQLException, IOException {
+        ReferenceSet conceptCodes = checkConceptCodes
+                ? getReferenceSet(crcJdbcTemplate, CONCEPT_DIMENSION_TABLE, CONCEPT_CD_COLUMN)
+                : null;
+
+        loadTable(crcJdbcTemplate, OBSERVATION_FACT_TABLE, minimalLogging,
+                isMinimallyLogged -> sortedBatchInsert(crcJdbcTemplate, OBSERVATION_FACT_TABLE, batchSize,
+                        file, Delimiters.TAB, DateFormatters.OBSERVATION_FACTS_DATE_FORMATTER, sortColumns,
+                        CONCEPT_CD_COLUMN, conceptCodes, isMinimallyLogged));
+    }
+
+    /**
+     * Insert the observation facts directly into the partitions of a
+     * range-partitioned observation_fact table, loading the partitions in
+     * parallel.
+     *
+     * @param file
+     * @throws SQLException
+     * @throws IOException
+     */
+    public void insertIntoObservationFactPartitions(Path file) throws SQLException, IOException {
+        insertIntoObservationFactPartitions(file, DEFAULT_BATCH_SIZE, false);
+    }
+
+    /**
+     * Insert the observation facts into the partitions in batches of the
+     * given size, optionally checking every concept_cd against
+     * concept_dimension first.
+     *
+     * @param file
+     * @param batchSize
+     * @param checkConceptCodes
+     * @throws SQLException
+     * @throws IOException
+     */
+    public void insertIntoObservationFactPartitions(Path file, int batchSize, boolean checkConceptCodes) throws SQLException, IOException {
+        ReferenceSet conceptCodes = checkConceptCodes
+                ? getReferenceSet(crcJdbcTemplate, CONCEPT_DIMENSION_TABLE, CONCEPT_CD_COLUMN)
+                : null;
+
+        partitionedBatchInsert(crcJdbcTemplate, OBSERVATION_FACT_TABLE, batchSize,
+                file, Delimiters.TAB, DateFormatters.OBSERVATION_FACTS_DATE_FORMATTER,
+                CONCEPT_CD_COLUMN, conceptCodes);
+    }
+
+    /**
+     * Replace the observation facts of one partition with the facts of the
+     * file, such as reloading a single year.
+     *
+     * @param partition
+     * @param file
+     * @throws SQLException
+     * @throws IOException
+     */
+    public void replaceObservationFactPartition(String partition, Path file) throws SQLException, IOException {
+        replacePartition(crcJdbcTemplate, OBSERVATION_FACT_TABLE, partition, DEFAULT_BATCH_SIZE,
                 file, Delimiters.TAB, DateFormatters.OBSERVATION_FACTS_DATE_FORMATTER);
     }
 
+    /**
+     * Profile the observation fact file against the table.
+     *
+     * @param file
+     * @return
+     * @throws SQLException if any value does not fit the table
+     * @throws IOException
+     */
+    public FileProfile profileObservationFactFile(Path file) throws SQLException, IOException {
+        return profileFile(crcJdbcTemplate, OBSERVATION_FACT_TABLE,
+                file, Delimiters.TAB, DateFormatters.OBSERVATION_FACTS_DATE_FORMATTER);
+    }
+
+    /**
+     * Insert the observation facts after profiling the file. Nothing is
+     * inserted if any value does not fit the table. The batch size is derived
+     * from the average row length of the file.
+     *
+     * @param file
+     * @throws SQLException
+     * @throws IOException
+     */
+    public void profileAndInsertIntoObservationFactTable(Path file) throws SQLException, IOException {
+        FileProfile profile = profileObservationFactFile(file);
+
+        int batchSize = profile.getRecommendedBatchSize(DEFAULT_BATCH_SIZE, DEFAULT_BATCH_BYTE_BUDGET);
+        batchInsert(crcJdbcTemplate, OBSERVATION_FACT_TABLE, batchSize,
+                file, Delimiters.TAB, DateFormatters.OBSERVATION_FACTS_DATE_FORMATTER);
+    }
+
+    public void updateObservationFactStatistics() {
+        updateStatistics(crcJdbcTemplate, OBSERVATION_FACT_TABLE);
+    }
+
 }
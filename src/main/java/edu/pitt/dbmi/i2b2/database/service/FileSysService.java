@@ -19,21 +19,47 @@
 package edu.pitt.dbmi.i2b2.database.service;
 
 import edu.pitt.dbmi.i2b2.database.Delimiters;
+import edu.pitt.dbmi.i2b2.database.model.ColumnProfile;
+import edu.pitt.dbmi.i2b2.database.model.FileProfile;
+import edu.pitt.dbmi.i2b2.database.model.TableColumn;
+import edu.pitt.dbmi.i2b2.database.util.DelimitedRecord;
+import edu.pitt.dbmi.i2b2.database.util.XxHash64;
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.sql.Types;
+import java.text.DateFormat;
+import java.text.ParseException;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
@@ -49,6 +75,10 @@ import org.springframework.stereotype.Service;
 @Service
 public class FileSysService {
 
+    private static final long MIN_PROFILE_CHUNK_SIZE = 8L * 1024 * 1024;
+    private static final long MAX_PROFILE_CHUNK_SIZE = 256L * 1024 * 1024;
+    private static final long HASH_CHUNK_SIZE = 64L * 1024 * 1024;
+
     private final ResourcePatternResolver resourcePatternResolver;
 
     @Autowired
@@ -56,7 +86,15 @@ public class FileSysService {
         this.resourcePatternResolver = resourcePatternResolver;
     }
 
-    public void mergeMetadataFiles(Path metadataDir) {
+    /**
+     * Merge the rows of the metadata files into one file without a header,
+     * dropping duplicate rows.
+     *
+     * @param metadataDir
+     * @param outputFile
+     * @throws IOException
+     */
+    public void mergeMetadataFiles(Path metadataDir, Path outputFile) throws IOException {
         Set<String> lines = new LinkedHashSet<>();
         List<Path> metadataFiles = getMetadataFiles(metadataDir);
         for (Path metadataFile : metadataFiles) {
@@ -70,16 +108,14 @@ public class FileSysService {
 
                     lines.add(line);
                 }
-            } catch (IOException exception) {
-                exception.printStackTrace(System.err);
             }
         }
 
-        Path outputFile = Paths.get("/home", "kvb2", "shared", "tmp", "metadata.tsv");
-        try (PrintStream writer = new PrintStream(Files.newOutputStream(outputFile, StandardOpenOption.CREATE))) {
+        try (PrintStream writer = new PrintStream(Files.newOutputStream(outputFile))) {
             lines.forEach(writer::println);
-        } catch (IOException exception) {
-            exception.printStackTrace(System.err);
+            if (writer.checkError()) {
+                throw new IOException(String.format("Unable to write %s.", outputFile));
+            }
         }
     }
 
@@ -137,6 +173,10 @@ public class FileSysService {
                 .collect(Collectors.joining());
     }
 
+    public boolean hasResourceFile(Path file) {
+        return resourcePatternResolver.getResource("classpath:/" + file.toString()).exists();
+    }
+
     public List<String> getResourceFileContentByLines(Path file) throws IOException {
         List<String> list = new LinkedList<>();
 
@@ -179,4 +219,304 @@ public class FileSysService {
         }
     }
 
+    /**
+     * Scan the data file in parallel chunks and check every value against the
+     * type, length and nullability of the table column with the same name as
+     * its header. Nothing is written to the database.
+     *
+     * @param file
+     * @param delimiter
+     * @param dateFormat
+     * @param tableColumns
+     * @param byteLengths true if the CHAR and VARCHAR sizes are in bytes, as
+     * with Oracle's default length semantics, rather than in characters
+     * @return
+     * @throws IOException
+     */
+    public FileProfile profileFile(Path file, Pattern delimiter, DateFormat dateFormat, List<TableColumn> tableColumns, boolean byteLengths) throws IOException {
+        List<String> headers = getHeaders(file);
+        long fileSize = Files.size(file);
+        int parallelism = (int) Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), fileSize / MIN_PROFILE_CHUNK_SIZE));
+        long numOfChunks = Math.max(parallelism, (fileSize + MAX_PROFILE_CHUNK_SIZE - 1) / MAX_PROFILE_CHUNK_SIZE);
+        long chunkSize = Math.max(1, (fileSize + numOfChunks - 1) / numOfChunks);
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<FileProfile>> futures = new LinkedList<>();
+            for (long start = 0; start < fileSize; start += chunkSize) {
+                long chunkStart = start;
+                long chunkEnd = Math.min(fileSize, start + chunkSize);
+                DateFormat chunkDateFormat = (DateFormat) dateFormat.clone();
+                futures.add(executor.submit(() -> profileChunk(file, chunkStart, chunkEnd, headers, delimiter, chunkDateFormat, tableColumns, byteLengths)));
+            }
+
+            FileProfile profile = new FileProfile(file, headers, tableColumns);
+            for (Future<FileProfile> future : futures) {
+                profile.merge(future.get());
+            }
+
+            return profile;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Profiling of " + file + " was interrupted.");
+        } catch (ExecutionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Profile the lines that start within the byte range [start, end). The
+     * line that crosses the end of the range is read to its end. The first
+     * line of the file is the header and is never profiled.
+     */
+    private FileProfile profileChunk(
+            Path file, long start, long end,
+            List<String> headers, Pattern delimiter,
+            DateFormat dateFormat, List<TableColumn> tableColumns, boolean byteLengths) throws IOException {
+        FileProfile profile = new FileProfile(file, headers, tableColumns);
+        List<ColumnProfile> columnProfiles = profile.getColumnProfiles();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // back up one byte to tell whether a line starts exactly at the start of the range
+            long position = (start == 0) ? 0 : start - 1;
+            InputStream in = new BufferedInputStream(Channels.newInputStream(channel.position(position)), 64 * 1024);
+
+            // skip the partial line (or the header) that belongs to the previous chunk
+            for (int b = in.read(); b != -1; b = in.read()) {
+                position++;
+                if (b == '\n') {
+                    break;
+                }
+            }
+
+            byte[] buffer = new byte[8 * 1024];
+            while (position < end) {
+                long lineOffset = position;
+                int length = 0;
+                int b = in.read();
+                if (b == -1) {
+                    break;
+                }
+                for (; b != -1 && b != '\n'; b = in.read()) {
+                    if (length == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    }
+                    buffer[length++] = (byte) b;
+                }
+                position += (b == -1) ? length : length + 1;
+
+                String line = new String(buffer, 0, length, StandardCharsets.UTF_8).trim();
+
+                // skip lines that are commented out
+                if (line.isEmpty() || line.startsWith("--")) {
+                    continue;
+                }
+
+                profile.addRow(length);
+
+                String[] values = delimiter.split(line);
+                if (values.length > headers.size()) {
+                    profile.addMalformedRow();
+                }
+                for (int i = 0; i < headers.size(); i++) {
+                    String value = (i < values.length) ? values[i].trim() : "";
+                    profileValue(columnProfiles.get(i), value, lineOffset, dateFormat, byteLengths);
+                }
+            }
+        }
+
+        return profile;
+    }
+
+    private void profileValue(ColumnProfile profile, String value, long offset, DateFormat dateFormat, boolean byteLengths) {
+        TableColumn column = profile.getColumn();
+        if (value.isEmpty()) {
+            profile.addNull();
+            if (column != null && !column.isNullable()) {
+                profile.addNullViolation(offset);
+            }
+
+            return;
+        }
+
+        profile.addValue(value);
+        if (column == null) {
+            return;
+        }
+
+        try {
+            switch (column.getType()) {
+                case Types.CHAR:
+                case Types.VARCHAR:
+                    if (column.getSize() > 0 && (byteLengths ? getUtf8Length(value) : value.length()) > column.getSize()) {
+                        profile.addLengthViolation(offset, value);
+                    }
+                    break;
+                case Types.NCHAR:
+                case Types.NVARCHAR:
+                    if (column.getSize() > 0 && value.length() > column.getSize()) {
+                        profile.addLengthViolation(offset, value);
+                    }
+                    break;
+                case Types.TINYINT:
+                    Byte.parseByte(value);
+                    break;
+                case Types.SMALLINT:
+                    Short.parseShort(value);
+                    break;
+                case Types.INTEGER:
+                    Integer.parseInt(value);
+                    break;
+                case Types.BIGINT:
+                    Long.parseLong(value);
+                    break;
+                case Types.REAL:
+                case Types.FLOAT:
+                case Types.DOUBLE:
+                    Double.parseDouble(value);
+                    break;
+                case Types.NUMERIC:
+                case Types.DECIMAL:
+                    new BigDecimal(value);
+                    break;
+                case Types.DATE:
+                case Types.TIME:
+                case Types.TIMESTAMP:
+                    // parsed exactly as the loader parses it
+                    dateFormat.parse(value);
+                    break;
+            }
+        } catch (NumberFormatException | ParseException exception) {
+            profile.addTypeViolation(offset, value);
+        }
+    }
+
+    /**
+     * Get the number of bytes of the value encoded in UTF-8, without encoding
+     * it.
+     */
+    private int getUtf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * Compute a content hash of each file. Files are memory-mapped in fixed
+     * 64 MB chunks that are hashed with xxHash64 in parallel, across files
+     * and within large files; the content hash is the xxHash64 of the chunk
+     * hashes, seeded with the file size.
+     *
+     * @param files
+     * @return the content hash of each file
+     * @throws IOException
+     */
+    public Map<Path, Long> getContentHashes(List<Path> files) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            Map<Path, List<Future<Long>>> chunkFutures = new LinkedHashMap<>();
+            for (Path file : files) {
+                long fileSize = Files.size(file);
+
+                List<Future<Long>> futures = new LinkedList<>();
+                for (long start = 0; start < fileSize; start += HASH_CHUNK_SIZE) {
+                    long chunkStart = start;
+                    int chunkSize = (int) Math.min(HASH_CHUNK_SIZE, fileSize - start);
+                    futures.add(executor.submit(() -> hashChunk(file, chunkStart, chunkSize)));
+                }
+                chunkFutures.put(file, futures);
+            }
+
+            Map<Path, Long> hashes = new LinkedHashMap<>();
+            for (Map.Entry<Path, List<Future<Long>>> entry : chunkFutures.entrySet()) {
+                List<Future<Long>> futures = entry.getValue();
+                ByteBuffer chunkHashes = ByteBuffer.allocate(futures.size() * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                for (Future<Long> future : futures) {
+                    chunkHashes.putLong(future.get());
+                }
+                hashes.put(entry.getKey(), XxHash64.hash(chunkHashes.array(), Files.size(entry.getKey())));
+            }
+
+            return hashes;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Hashing of files was interrupted.");
+        } catch (ExecutionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long hashChunk(Path file, long start, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+
+            return XxHash64.hash(buffer, 0, size, 0);
+        }
+    }
+
+    /**
+     * Get the distinct values of a column of the file. Empty values are
+     * returned as an empty string.
+     *
+     * @param file
+     * @param delimiter
+     * @param column
+     * @return the distinct values or an empty set if the file has no such
+     * column
+     * @throws IOException
+     */
+    public Set<String> getColumnValues(Path file, Pattern delimiter, String column) throws IOException {
+        Set<String> values = new HashSet<>();
+
+        int index = getHeaders(file).indexOf(column.toLowerCase());
+        if (index < 0) {
+            return values;
+        }
+
+        DelimitedRecord record = new DelimitedRecord(delimiter);
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            // skip header
+            reader.readLine();
+
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                String trimmed = line.trim();
+
+                // skip lines that are commented out
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                    continue;
+                }
+
+                record.parse(trimmed);
+                values.add((index < record.size()) ? record.getString(index) : "");
+            }
+        }
+
+        return values;
+    }
+
 }
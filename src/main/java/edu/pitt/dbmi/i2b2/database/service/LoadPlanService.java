@@ -0,0 +1,285 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.service;
+
+import edu.pitt.dbmi.i2b2.database.conf.LoadPlanProperties;
+import edu.pitt.dbmi.i2b2.database.conf.LoadPlanProperties.Step;
+import edu.pitt.dbmi.i2b2.database.model.FileProfile;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs the steps of the load plan. A step starts as soon as all of the steps
+ * it depends on have finished, so independent steps, such as the ontology
+ * load on the metadata datasource and the fact load on the CRC datasource,
+ * run in parallel. A step whose dependency fails is skipped.
+ *
+ * Oct 18, 2026 2:58:33 PM
+ *
+ * @author agent (agent@local)
+ */
+@Service
+public class LoadPlanService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadPlanService.class);
+
+    private static final Set<String> JOBS = new HashSet<>(Arrays.asList(
+            "merge-metadata",
+            "ontology-load",
+            "ontology-sync",
+            "ontology-index",
+            "ontology-statistics",
+            "fact-load",
+            "fact-statistics"));
+    private static final Set<String> JOBS_REQUIRING_PATH = new HashSet<>(Arrays.asList(
+            "merge-metadata",
+            "ontology-load",
+            "ontology-sync",
+            "fact-load"));
+
+    private final LoadPlanProperties loadPlanProperties;
+    private final FileSysService fileSysService;
+    private final MetadataDBService metadataDBService;
+    private final CrcDBService crcDBService;
+
+    @Autowired
+    public LoadPlanService(LoadPlanProperties loadPlanProperties, FileSysService fileSysService, MetadataDBService metadataDBService, CrcDBService crcDBService) {
+        this.loadPlanProperties = loadPlanProperties;
+        this.fileSysService = fileSysService;
+        this.metadataDBService = metadataDBService;
+        this.crcDBService = crcDBService;
+    }
+
+    public boolean hasSteps() {
+        return !loadPlanProperties.getSteps().isEmpty();
+    }
+
+    /**
+     * Run the load plan and print the timing of each step.
+     *
+     * @return true if every step succeeded
+     */
+    public boolean run() {
+        Map<String, Step> steps = loadPlanProperties.getSteps();
+        List<String> order = getExecutionOrder(steps);
+
+        int threads = (loadPlanProperties.getThreads() > 0) ? loadPlanProperties.getThreads() : steps.size();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        Map<String, StepTiming> timings = new LinkedHashMap<>();
+        Map<String, CompletableFuture<Void>> futures = new HashMap<>();
+        long planStartTime = System.nanoTime();
+        try {
+            for (String name : order) {
+                Step step = steps.get(name);
+                StepTiming timing = new StepTiming(name, step.getJob());
+                timings.put(name, timing);
+
+                CompletableFuture<?>[] dependencies = step.getDependsOn().stream()
+                        .map(futures::get)
+                        .toArray(CompletableFuture<?>[]::new);
+                futures.put(name, CompletableFuture.allOf(dependencies)
+                        .thenRunAsync(() -> runStep(step, timing), executor));
+            }
+
+            try {
+                CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).join();
+            } catch (CompletionException exception) {
+                // failures are recorded in the step timings
+            }
+        } finally {
+            executor.shutdown();
+        }
+        long planEndTime = System.nanoTime();
+
+        logReport(timings.values(), planStartTime, planEndTime);
+
+        return timings.values().stream().allMatch(timing -> "OK".equals(timing.status));
+    }
+
+    private void runStep(Step step, StepTiming timing) {
+        timing.startTime = System.nanoTime();
+        try {
+            Path path = (step.getPath() == null) ? null : Paths.get(step.getPath());
+            switch (step.getJob()) {
+                case "merge-metadata":
+                    // by default, next to the metadata directory so it is not merged into itself
+                    Path outputFile = (step.getOutput() == null)
+                            ? path.resolveSibling(path.getFileName() + ".tsv")
+                            : Paths.get(step.getOutput());
+                    fileSysService.mergeMetadataFiles(path, outputFile);
+                    break;
+                case "ontology-load":
+                    if (step.isProfile()) {
+                        metadataDBService.profileAndLoadSharepheMetadataTable(path);
+                    } else {
+                        metadataDBService.loadSharepheMetadataTable(path, step.isMinimalLogging());
+                    }
+                    break;
+                case "ontology-sync":
+                    metadataDBService.syncSharepheMetadataTables(path);
+                    break;
+                case "ontology-index":
+                    metadataDBService.createSharepheMetadataTableIndices();
+                    break;
+                case "ontology-statistics":
+                    metadataDBService.updateSharepheMetadataStatistics();
+                    break;
+                case "fact-load":
+                    int batchSize = CrcDBService.DEFAULT_BATCH_SIZE;
+                    if (step.isProfile()) {
+                        FileProfile profile = crcDBService.profileObservationFactFile(path);
+                        batchSize = profile.getRecommendedBatchSize(CrcDBService.DEFAULT_BATCH_SIZE, CrcDBService.DEFAULT_BATCH_BYTE_BUDGET);
+                    }
+                    if (step.isPartitioned()) {
+                        crcDBService.insertIntoObservationFactPartitions(path, batchSize, step.isCheckConceptCodes());
+                    } else if (step.getSortBy().isEmpty()) {
+                        crcDBService.insertIntoObservationFactTable(path, batchSize, step.isMinimalLogging(), step.isCheckConceptCodes());
+                    } else {
+                        crcDBService.insertSortedIntoObservationFactTable(path, step.getSortBy(), batchSize, step.isMinimalLogging(), step.isCheckConceptCodes());
+                    }
+                    break;
+                case "fact-statistics":
+                    crcDBService.updateObservationFactStatistics();
+                    break;
+            }
+            timing.status = "OK";
+        } catch (Exception exception) {
+            timing.status = "FAILED";
+            LOGGER.error(String.format("Step %s failed.", timing.name), exception);
+            throw new CompletionException(exception);
+        } finally {
+            timing.endTime = System.nanoTime();
+        }
+    }
+
+    /**
+     * Validate the plan and sort the steps so that every step comes after the
+     * steps it depends on.
+     *
+     * @param steps
+     * @return
+     */
+    private List<String> getExecutionOrder(Map<String, Step> steps) {
+        for (Map.Entry<String, Step> entry : steps.entrySet()) {
+            String name = entry.getKey();
+            Step step = entry.getValue();
+            if (!JOBS.contains(step.getJob())) {
+                throw new IllegalArgumentException(String.format("Step %s has an unknown job '%s'.  Valid jobs are %s.", name, step.getJob(), JOBS));
+            }
+            if (JOBS_REQUIRING_PATH.contains(step.getJob()) && step.getPath() == null) {
+                throw new IllegalArgumentException(String.format("Step %s requires a path.", name));
+            }
+            if (step.isPartitioned() && !step.getSortBy().isEmpty()) {
+                throw new IllegalArgumentException(String.format("Step %s cannot be both partitioned and sorted.", name));
+            }
+            if (step.isPartitioned() && step.isMinimalLogging()) {
+                throw new IllegalArgumentException(String.format("Step %s cannot be both partitioned and minimally logged.", name));
+            }
+            for (String dependency : step.getDependsOn()) {
+                if (!steps.containsKey(dependency)) {
+                    throw new IllegalArgumentException(String.format("Step %s depends on unknown step %s.", name, dependency));
+                }
+            }
+        }
+
+        List<String> order = new LinkedList<>();
+        Set<String> visited = new HashSet<>();
+        Set<String> visiting = new HashSet<>();
+        for (String name : steps.keySet()) {
+            visit(name, steps, visited, visiting, order);
+        }
+
+        return order;
+    }
+
+    private void visit(String name, Map<String, Step> steps, Set<String> visited, Set<String> visiting, List<String> order) {
+        if (visited.contains(name)) {
+            return;
+        }
+        if (!visiting.add(name)) {
+            throw new IllegalArgumentException(String.format("Step %s is part of a dependency cycle.", name));
+        }
+
+        for (String dependency : steps.get(name).getDependsOn()) {
+            visit(dependency, steps, visited, visiting, order);
+        }
+
+        visiting.remove(name);
+        visited.add(name);
+        order.add(name);
+    }
+
+    private void logReport(Iterable<StepTiming> timings, long planStartTime, long planEndTime) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Load plan timing:%n"));
+        report.append(String.format("%-24s %-16s %-8s %12s %12s%n", "Step", "Job", "Status", "Start (s)", "Elapsed (s)"));
+        for (StepTiming timing : timings) {
+            if (timing.startTime == 0) {
+                report.append(String.format("%-24s %-16s %-8s %12s %12s%n", timing.name, timing.job, timing.status, "-", "-"));
+            } else {
+                report.append(String.format("%-24s %-16s %-8s %12.3f %12.3f%n",
+                        timing.name, timing.job, timing.status,
+                        toSeconds(timing.startTime - planStartTime),
+                        toSeconds(timing.endTime - timing.startTime)));
+            }
+        }
+        report.append(String.format("Total elapsed: %.3f s", toSeconds(planEndTime - planStartTime)));
+
+        LOGGER.info(report.toString());
+    }
+
+    private static double toSeconds(long nanos) {
+        return nanos / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private static final class StepTiming {
+
+        private final String name;
+        private final String job;
+
+        private volatile String status = "SKIPPED";
+        private volatile long startTime;
+        private volatile long endTime;
+
+        private StepTiming(String name, String job) {
+            this.name = name;
+            this.job = job;
+        }
+
+    }
+
+}
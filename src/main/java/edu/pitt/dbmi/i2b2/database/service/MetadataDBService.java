@@ -19,11 +19,32 @@
 package edu.pitt.dbmi.i2b2.database.service;
 
 import edu.pitt.dbmi.i2b2.database.Delimiters;
+import edu.pitt.dbmi.i2b2.database.model.FileManifestEntry;
+import edu.pitt.dbmi.i2b2.database.model.FileProfile;
 import edu.pitt.dbmi.i2b2.database.util.DateFormatters;
+import edu.pitt.dbmi.i2b2.database.util.LatencyRecorder;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
@@ -38,25 +59,429 @@ import org.springframework.stereotype.Service;
 @Service
 public class MetadataDBService extends AbstractDBService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetadataDBService.class);
+
+    private static final String SHAREPHE_TABLE = "sharephe_metadata";
+    private static final String SOURCESYSTEM_CD_COLUMN = "sourcesystem_cd";
+    private static final int BENCHMARK_NUM_OF_SAMPLES = 50;
+    private static final int BENCHMARK_NUM_OF_ROUNDS = 5;
+    private static final Path METADATA_TABLE_SCRIPT = Paths.get("metadata", "metadata_table.sql");
+    private static final Path METADATA_TABLE_INDICES_SCRIPT = Paths.get("metadata", "metadata_table_indices.sql");
+
     private final JdbcTemplate metadataJdbcTemplate;
 
     @Autowired
-    public MetadataDBService(JdbcTemplate metadataJdbcTemplate, FileSysService fileSysService) {
-        super(fileSysService);
+    public MetadataDBService(JdbcTemplate metadataJdbcTemplate, FileSysService fileSysService, TableSchemaCache tableSchemaCache, SqlScriptService sqlScriptService) {
+        super(fileSysService, tableSchemaCache, sqlScriptService);
         this.metadataJdbcTemplate = metadataJdbcTemplate;
     }
 
     public void createSharepheMetadataTables(Path metadataDirectory) throws SQLException, IOException {
-        String tableName = "sharephe_metadata";
-        createOntologyTable(metadataJdbcTemplate, tableName);
-        for (Path metadataFile : fileSysService.getMetadataFiles(metadataDirectory)) {
-            insertIntoOntologyTable(metadataJdbcTemplate, tableName, metadataFile);
+        createSharepheMetadataTables(metadataDirectory, false);
+    }
+
+    /**
+     * Create and load the Sharephe ontology table, then build its indices and
+     * refresh its statistics.
+     *
+     * @param metadataDirectory
+     * @param minimalLogging
+     * @throws SQLException
+     * @throws IOException
+     */
+    public void createSharepheMetadataTables(Path metadataDirectory, boolean minimalLogging) throws SQLException, IOException {
+        loadSharepheMetadataTable(metadataDirectory, minimalLogging);
+        createSharepheMetadataTableIndices();
+        updateSharepheMetadataStatistics();
+    }
+
+    /**
+     * Bring the Sharephe ontology table up to date with the metadata
+     * directory, loading only what changed since the last run. Each file's
+     * size, modification time, content hash and SOURCESYSTEM_CD values are
+     * kept in the load manifest. Files with the same size and modification
+     * time are skipped without hashing them, as are files with the same size
+     * and hash. The rows of changed and removed files are deleted by their
+     * SOURCESYSTEM_CD and the changed files reloaded, one file per
+     * transaction together with its manifest entry. If those values are
+     * shared with another file, or unknown, the table is rebuilt from all of
+     * the files in a staging table that then replaces it. Indices are created
+     * for a new or rebuilt table.
+     *
+     * @param metadataDirectory
+     * @throws SQLException
+     * @throws IOException
+     */
+    public void syncSharepheMetadataTables(Path metadataDirectory) throws SQLException, IOException {
+        DataSource dataSource = metadataJdbcTemplate.getDataSource();
+        boolean isNewTable = tableSchemaCache.getColumns(dataSource, SHAREPHE_TABLE).isEmpty();
+        if (isNewTable) {
+            createOntologyTable(metadataJdbcTemplate, SHAREPHE_TABLE);
+        }
+
+        Map<String, FileManifestEntry> previousEntries = getManifest(metadataJdbcTemplate, SHAREPHE_TABLE);
+        if (isNewTable) {
+            // the table was dropped since the manifest was written
+            runInTransaction(dataSource, conn -> clearManifest(conn, SHAREPHE_TABLE));
+            previousEntries.clear();
+        }
+
+        List<Path> metadataFiles = fileSysService.getMetadataFiles(metadataDirectory);
+
+        // only hash the files whose size or modification time changed
+        Map<Path, FileManifestEntry> currentEntries = new LinkedHashMap<>();
+        List<Path> filesToHash = new LinkedList<>();
+        for (Path metadataFile : metadataFiles) {
+            FileManifestEntry previousEntry = previousEntries.get(metadataFile.getFileName().toString());
+            if (previousEntry != null && previousEntry.hasSameAttributes(Files.size(metadataFile), Files.getLastModifiedTime(metadataFile).toMillis())) {
+                currentEntries.put(metadataFile, previousEntry);
+            } else {
+                filesToHash.add(metadataFile);
+            }
+        }
+        Map<Path, Long> contentHashes = fileSysService.getContentHashes(filesToHash);
+
+        Map<Path, FileManifestEntry> changedEntries = new LinkedHashMap<>();
+        List<FileManifestEntry> touchedEntries = new LinkedList<>();
+        for (Path metadataFile : filesToHash) {
+            String fileName = metadataFile.getFileName().toString();
+            FileManifestEntry entry = new FileManifestEntry(fileName,
+                    Files.size(metadataFile), Files.getLastModifiedTime(metadataFile).toMillis(),
+                    contentHashes.get(metadataFile), null);
+            FileManifestEntry previousEntry = previousEntries.get(fileName);
+            if (previousEntry != null && previousEntry.hasSameContent(entry)) {
+                // same content, so only the modification time is recorded
+                entry = entry.withSourceSystemCodes(previousEntry.getSourceSystemCodes());
+                touchedEntries.add(entry);
+            } else {
+                Set<String> codes = fileSysService.getColumnValues(metadataFile, Delimiters.TAB, SOURCESYSTEM_CD_COLUMN);
+                entry = entry.withSourceSystemCodes((codes.isEmpty() || codes.contains("")) ? null : codes);
+                changedEntries.put(metadataFile, entry);
+            }
+            currentEntries.put(metadataFile, entry);
+        }
+        Set<String> fileNames = currentEntries.values().stream()
+                .map(FileManifestEntry::getFileName)
+                .collect(Collectors.toSet());
+        List<FileManifestEntry> removedEntries = previousEntries.values().stream()
+                .filter(e -> !fileNames.contains(e.getFileName()))
+                .collect(Collectors.toList());
+
+        if (changedEntries.isEmpty() && removedEntries.isEmpty()) {
+            runInTransaction(dataSource, conn -> {
+                for (FileManifestEntry entry : touchedEntries) {
+                    saveManifestEntry(conn, SHAREPHE_TABLE, entry);
+                }
+            });
+            LOGGER.info("Table {} is up to date with {}.", SHAREPHE_TABLE, metadataDirectory);
+            return;
+        }
+
+        if (isRebuildRequired(previousEntries, currentEntries, changedEntries, removedEntries)) {
+            LOGGER.info("Rebuilding table {}: the rows of the changed files cannot be told apart by {}.", SHAREPHE_TABLE, SOURCESYSTEM_CD_COLUMN);
+            rebuildSharepheMetadataTable(dataSource, metadataFiles, currentEntries.values());
+            createSharepheMetadataTableIndices();
+        } else {
+            LOGGER.info("Replacing the rows of {} changed and {} removed files of table {}; {} files are unchanged.",
+                    changedEntries.size(), removedEntries.size(), SHAREPHE_TABLE, currentEntries.size() - changedEntries.size());
+
+            // removed files first, since a changed file may now have their codes
+            for (FileManifestEntry entry : removedEntries) {
+                runInTransaction(dataSource, conn -> {
+                    deleteRows(conn, SHAREPHE_TABLE, SOURCESYSTEM_CD_COLUMN, entry.getSourceSystemCodes());
+                    deleteManifestEntry(conn, SHAREPHE_TABLE, entry.getFileName());
+                });
+            }
+            for (Map.Entry<Path, FileManifestEntry> entry : changedEntries.entrySet()) {
+                Set<String> codesToDelete = getCodesToReplace(entry.getValue(), previousEntries.get(entry.getValue().getFileName()));
+                runInTransaction(dataSource, conn -> {
+                    deleteRows(conn, SHAREPHE_TABLE, SOURCESYSTEM_CD_COLUMN, codesToDelete);
+                    batchInsert(dataSource, conn, SHAREPHE_TABLE, DEFAULT_BATCH_SIZE, entry.getKey(), Delimiters.TAB, DateFormatters.METADATA_DATE_FORMATTER);
+                    saveManifestEntry(conn, SHAREPHE_TABLE, entry.getValue());
+                });
+            }
+            runInTransaction(dataSource, conn -> {
+                for (FileManifestEntry entry : touchedEntries) {
+                    saveManifestEntry(conn, SHAREPHE_TABLE, entry);
+                }
+            });
+
+            if (isNewTable) {
+                createSharepheMetadataTableIndices();
+            }
+        }
+        updateSharepheMetadataStatistics();
+    }
+
+    /**
+     * The rows of the changed and removed files can only be replaced by their
+     * SOURCESYSTEM_CD if all of their codes are known, none of the codes is
+     * shared with an unchanged file and no two changed files share a code.
+     */
+    private boolean isRebuildRequired(
+            Map<String, FileManifestEntry> previousEntries, Map<Path, FileManifestEntry> currentEntries,
+            Map<Path, FileManifestEntry> changedEntries, List<FileManifestEntry> removedEntries) {
+        for (FileManifestEntry entry : removedEntries) {
+            if (entry.getSourceSystemCodes() == null) {
+                return true;
+            }
+        }
+
+        Set<String> codesToReplace = new HashSet<>();
+        for (FileManifestEntry entry : removedEntries) {
+            codesToReplace.addAll(entry.getSourceSystemCodes());
+        }
+        Set<String> changedCodes = new HashSet<>();
+        for (FileManifestEntry entry : changedEntries.values()) {
+            Set<String> codes = getCodesToReplace(entry, previousEntries.get(entry.getFileName()));
+            if (codes == null || !Collections.disjoint(changedCodes, codes)) {
+                return true;
+            }
+            changedCodes.addAll(codes);
+        }
+        codesToReplace.addAll(changedCodes);
+
+        for (Map.Entry<Path, FileManifestEntry> entry : currentEntries.entrySet()) {
+            if (!changedEntries.containsKey(entry.getKey())) {
+                Set<String> codes = entry.getValue().getSourceSystemCodes();
+                if (codes == null || !Collections.disjoint(codes, codesToReplace)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the new and the old codes of the changed file, or null if either
+     * is unknown
+     */
+    private Set<String> getCodesToReplace(FileManifestEntry entry, FileManifestEntry previousEntry) {
+        if (entry.getSourceSystemCodes() == null || (previousEntry != null && previousEntry.getSourceSystemCodes() == null)) {
+            return null;
+        }
+
+        Set<String> codes = new HashSet<>(entry.getSourceSystemCodes());
+        if (previousEntry != null) {
+            codes.addAll(previousEntry.getSourceSystemCodes());
+        }
+
+        return codes;
+    }
+
+    /**
+     * Load all of the files into a staging table that then replaces the
+     * table, together with the manifest, so the table keeps its old rows
+     * until the new ones are loaded.
+     */
+    private void rebuildSharepheMetadataTable(DataSource dataSource, List<Path> metadataFiles, Collection<FileManifestEntry> entries) throws SQLException, IOException {
+        String stagingTable = SHAREPHE_TABLE + "_stg";
+
+        // left over from a failed rebuild
+        tableSchemaCache.evict(dataSource, stagingTable);
+        if (!tableSchemaCache.getColumns(dataSource, stagingTable).isEmpty()) {
+            dropTable(dataSource, stagingTable);
+        }
+
+        createOntologyTable(metadataJdbcTemplate, stagingTable);
+        try {
+            for (Path metadataFile : metadataFiles) {
+                insertIntoOntologyTable(metadataJdbcTemplate, stagingTable, metadataFile);
+            }
+        } catch (SQLException | IOException exception) {
+            try {
+                dropTable(dataSource, stagingTable);
+            } catch (SQLException dropException) {
+                exception.addSuppressed(dropException);
+            }
+            throw exception;
         }
-        createOntologyTableIndices(metadataJdbcTemplate, "shp", tableName);
+
+        try {
+            runInTransaction(dataSource, conn -> {
+                replaceTable(conn, SHAREPHE_TABLE, stagingTable);
+                clearManifest(conn, SHAREPHE_TABLE);
+                for (FileManifestEntry entry : entries) {
+                    saveManifestEntry(conn, SHAREPHE_TABLE, entry);
+                }
+            });
+        } finally {
+            tableSchemaCache.evict(dataSource, SHAREPHE_TABLE);
+            tableSchemaCache.evict(dataSource, stagingTable);
+        }
+    }
+
+    /**
+     * Create and load the Sharephe ontology table without indices. With
+     * minimal logging, the table is created and loaded in the vendor's
+     * minimal-logging mode and switched to full logging afterward.
+     *
+     * @param metadataDirectory
+     * @param minimalLogging
+     * @throws SQLException
+     * @throws IOException
+     */
+    public void loadSharepheMetadataTable(Path metadataDirectory, boolean minimalLogging) throws SQLException, IOException {
+        createOntologyTable(metadataJdbcTemplate, SHAREPHE_TABLE, minimalLogging);
+        loadTable(metadataJdbcTemplate, SHAREPHE_TABLE, minimalLogging, isMinimallyLogged -> {
+            for (Path metadataFile : fileSysService.getMetadataFiles(metadataDirectory)) {
+                batchInsertMetadata(metadataJdbcTemplate, SHAREPHE_TABLE, DEFAULT_BATCH_SIZE, metadataFile, Delimiters.TAB, DateFormatters.METADATA_DATE_FORMATTER, isMinimallyLogged);
+            }
+        });
+    }
+
+    public void createSharepheMetadataTableIndices() throws SQLException, IOException {
+        createOntologyTableIndices(metadataJdbcTemplate, "shp", SHAREPHE_TABLE);
+    }
+
+    /**
+     * Refresh the optimizer statistics of the Sharephe ontology table and
+     * report the latencies of typical ontology cell queries against it.
+     *
+     * @throws SQLException
+     */
+    public void updateSharepheMetadataStatistics() throws SQLException {
+        updateStatistics(metadataJdbcTemplate, SHAREPHE_TABLE);
+        benchmarkOntologyQueries(metadataJdbcTemplate, SHAREPHE_TABLE);
+    }
+
+    /**
+     * Same as createSharepheMetadataTables, except that every metadata file is
+     * profiled against the table first. Nothing is inserted if any file does
+     * not fit the table, and a table created for the profile is dropped
+     * again.
+     *
+     * @param metadataDirectory
+     * @throws SQLException
+     * @throws IOException
+     */
+    public void profileAndCreateSharepheMetadataTables(Path metadataDirectory) throws SQLException, IOException {
+        profileAndLoadSharepheMetadataTable(metadataDirectory);
+        createSharepheMetadataTableIndices();
+        updateSharepheMetadataStatistics();
+    }
+
+    public void profileAndLoadSharepheMetadataTable(Path metadataDirectory) throws SQLException, IOException {
+        // the profile needs the columns of the table, so a missing table is created for it
+        DataSource dataSource = metadataJdbcTemplate.getDataSource();
+        boolean isNewTable = tableSchemaCache.getColumns(dataSource, SHAREPHE_TABLE).isEmpty();
+        if (isNewTable) {
+            createOntologyTable(metadataJdbcTemplate, SHAREPHE_TABLE);
+        }
+
+        Map<Path, FileProfile> profiles = new LinkedHashMap<>();
+        try {
+            for (Path metadataFile : fileSysService.getMetadataFiles(metadataDirectory)) {
+                profiles.put(metadataFile, profileFile(metadataJdbcTemplate, SHAREPHE_TABLE, metadataFile, Delimiters.TAB, DateFormatters.METADATA_DATE_FORMATTER));
+            }
+        } catch (SQLException | IOException exception) {
+            if (isNewTable) {
+                metadataJdbcTemplate.execute(String.format("DROP TABLE %s", SHAREPHE_TABLE));
+                tableSchemaCache.evict(dataSource, SHAREPHE_TABLE);
+            }
+            throw exception;
+        }
+
+        for (Map.Entry<Path, FileProfile> entry : profiles.entrySet()) {
+            int batchSize = entry.getValue().getRecommendedBatchSize(DEFAULT_BATCH_SIZE, DEFAULT_BATCH_BYTE_BUDGET);
+            batchInsertMetadata(metadataJdbcTemplate, SHAREPHE_TABLE, batchSize, entry.getKey(), Delimiters.TAB, DateFormatters.METADATA_DATE_FORMATTER);
+        }
+    }
+
+    /**
+     * Time the queries the i2b2 ontology cell runs most: child lookup by
+     * C_FULLNAME prefix, terms by C_HLEVEL and modifiers by M_APPLIED_PATH.
+     * The query parameters are sampled from the table itself.
+     *
+     * @param jdbcTemplate
+     * @param tableName
+     * @throws SQLException
+     */
+    protected void benchmarkOntologyQueries(JdbcTemplate jdbcTemplate, String tableName) throws SQLException {
+        DataSource dataSource = jdbcTemplate.getDataSource();
+        if (dataSource == null) {
+            return;
+        }
+
+        try (Connection conn = dataSource.getConnection()) {
+            String table = String.format("%s.%s", conn.getSchema(), tableName.toLowerCase());
+            boolean isPostgreSQL = "PostgreSQL".equals(conn.getMetaData().getDatabaseProductName());
+
+            List<Object[]> children = new LinkedList<>();
+            String folderQuery = String.format("SELECT c_fullname, c_hlevel FROM %s WHERE c_visualattributes LIKE 'F%%' OR c_visualattributes LIKE 'C%%'", table);
+            for (Object[] row : sampleRows(conn, folderQuery)) {
+                // backslash is the default escape character of LIKE in PostgreSQL
+                String fullName = row[0].toString();
+                String prefix = (isPostgreSQL ? fullName.replace("\\", "\\\\") : fullName) + "%";
+                children.add(new Object[]{prefix, ((Number) row[1]).intValue() + 1});
+            }
+            List<Object[]> levels = sampleRows(conn, String.format("SELECT DISTINCT c_hlevel FROM %s", table));
+            List<Object[]> appliedPaths = sampleRows(conn, String.format("SELECT DISTINCT m_applied_path FROM %s WHERE m_applied_path <> '@'", table));
+
+            Map<String, LatencyRecorder> results = new LinkedHashMap<>();
+            results.put("child lookup by C_FULLNAME prefix", benchmarkQuery(conn,
+                    String.format("SELECT c_fullname, c_name, c_visualattributes, c_basecode FROM %s WHERE c_fullname LIKE ? AND c_hlevel = ?", table),
+                    children));
+            results.put("terms by C_HLEVEL", benchmarkQuery(conn,
+                    String.format("SELECT c_fullname, c_name, c_visualattributes FROM %s WHERE c_hlevel = ? AND c_synonym_cd = 'N'", table),
+                    levels));
+            results.put("modifiers by M_APPLIED_PATH", benchmarkQuery(conn,
+                    String.format("SELECT c_fullname, c_name, c_visualattributes FROM %s WHERE m_applied_path = ? AND m_exclusion_cd IS NULL", table),
+                    appliedPaths));
+
+            StringBuilder report = new StringBuilder();
+            report.append(String.format("%-36s %8s %10s %10s%n", "Query", "Runs", "p50 (ms)", "p99 (ms)"));
+            results.forEach((name, latencies) -> report.append(String.format("%-36s %8d %10.3f %10.3f%n",
+                    name, latencies.getCount(), latencies.getPercentileMillis(50), latencies.getPercentileMillis(99))));
+            LOGGER.info("Ontology query latencies of {}:{}{}", tableName, System.lineSeparator(), report);
+        }
+    }
+
+    private List<Object[]> sampleRows(Connection conn, String query) throws SQLException {
+        List<Object[]> rows = new LinkedList<>();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.setMaxRows(BENCHMARK_NUM_OF_SAMPLES);
+            try (ResultSet rs = stmt.executeQuery(query)) {
+                int numOfColumns = rs.getMetaData().getColumnCount();
+                while (rs.next()) {
+                    Object[] row = new Object[numOfColumns];
+                    for (int i = 0; i < numOfColumns; i++) {
+                        row[i] = rs.getObject(i + 1);
+                    }
+                    rows.add(row);
+                }
+            }
+        }
+
+        return rows;
+    }
+
+    private LatencyRecorder benchmarkQuery(Connection conn, String query, List<Object[]> parameters) throws SQLException {
+        LatencyRecorder latencies = new LatencyRecorder();
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            for (int round = 0; round < BENCHMARK_NUM_OF_ROUNDS; round++) {
+                for (Object[] values : parameters) {
+                    for (int i = 0; i < values.length; i++) {
+                        stmt.setObject(i + 1, values[i]);
+                    }
+
+                    long startTime = System.nanoTime();
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            rs.getString(1);
+                        }
+                    }
+                    latencies.record(System.nanoTime() - startTime);
+                }
+            }
+        }
+
+        return latencies;
     }
 
     private void createOntologyTableIndices(JdbcTemplate jdbcTemplate, String indexNameprefix, String tableName) throws SQLException, IOException {
-        createTableIndexes(jdbcTemplate, indexNameprefix, tableName, Paths.get("metadata", "metadata_table_indices.sql"));
+        createTableIndexes(jdbcTemplate, indexNameprefix, tableName, METADATA_TABLE_INDICES_SCRIPT);
     }
 
     private void insertIntoOntologyTable(JdbcTemplate jdbcTemplate, String tableName, Path file) throws SQLException, IOException {
@@ -64,22 +489,32 @@ public class MetadataDBService extends AbstractDBService {
     }
 
     protected void createMetadataTable(JdbcTemplate jdbcTemplate, String tableName, Path file) throws SQLException, IOException {
-        String query = fileSysService.getResourceFileContents(file);
+        createMetadataTable(jdbcTemplate, tableName, file, "");
+    }
 
-        jdbcTemplate.execute(query.replaceAll("I2B2", tableName));
+    private void createUnloggedMetadataTable(JdbcTemplate jdbcTemplate, String tableName, Path file) throws SQLException, IOException {
+        createMetadataTable(jdbcTemplate, tableName, file, "UNLOGGED");
+    }
+
+    private void createMetadataTable(JdbcTemplate jdbcTemplate, String tableName, Path file, String tablePersistence) throws SQLException, IOException {
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("table_name", tableName);
+        parameters.put("table_persistence", tablePersistence);
+
+        sqlScriptService.execute(jdbcTemplate, getDatabaseVendor(jdbcTemplate), file, parameters);
+        tableSchemaCache.evict(jdbcTemplate.getDataSource(), tableName);
     }
 
     private void createOntologyTable(JdbcTemplate jdbcTemplate, String tableName) throws SQLException, IOException {
-        switch (getDatabaseVendor(jdbcTemplate)) {
-            case "PostgreSQL":
-                createMetadataTable(jdbcTemplate, tableName, Paths.get("metadata", "postgresql", "metadata_table.sql"));
-                break;
-            case "Oracle":
-                createMetadataTable(jdbcTemplate, tableName, Paths.get("metadata", "oracle", "metadata_table.sql"));
-                break;
-            case "Microsoft SQL Server":
-                createMetadataTable(jdbcTemplate, tableName, Paths.get("metadata", "sqlserver", "metadata_table.sql"));
-                break;
+        createOntologyTable(jdbcTemplate, tableName, false);
+    }
+
+    private void createOntologyTable(JdbcTemplate jdbcTemplate, String tableName, boolean minimalLogging) throws SQLException, IOException {
+        // only PostgreSQL creates tables without logging; the others switch logging on the existing table
+        if (minimalLogging && "PostgreSQL".equals(getDatabaseVendor(jdbcTemplate))) {
+            createUnloggedMetadataTable(jdbcTemplate, tableName, METADATA_TABLE_SCRIPT);
+        } else {
+            createMetadataTable(jdbcTemplate, tableName, METADATA_TABLE_SCRIPT);
         }
     }
 
@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.service;
+
+import edu.pitt.dbmi.i2b2.database.model.SqlScript;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs the bundled SQL scripts. A script is read and parsed once and then
+ * cached. The dialect variant of a script, such as
+ * metadata/postgresql/metadata_table.sql for metadata/metadata_table.sql, is
+ * used when there is one.
+ *
+ * Oct 18, 2026 8:52:47 PM
+ *
+ * @author agent (agent@local)
+ */
+@Service
+public class SqlScriptService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SqlScriptService.class);
+
+    private static final int MAX_NUM_OF_PARALLEL_STATEMENTS = 8;
+
+    private final FileSysService fileSysService;
+
+    private final ConcurrentMap<String, SqlScript> scripts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SqlScriptService(FileSysService fileSysService) {
+        this.fileSysService = fileSysService;
+    }
+
+    /**
+     * Get the parsed script for the database vendor.
+     *
+     * @param vendor the database product name
+     * @param file the script, relative to the classpath
+     * @return
+     * @throws IOException if neither the dialect variant nor the script exists
+     */
+    public SqlScript getScript(String vendor, Path file) throws IOException {
+        String key = vendor + ":" + file;
+        SqlScript script = scripts.get(key);
+        if (script == null) {
+            Path resolvedFile = resolveDialect(vendor, file);
+            SqlScript parsedScript = SqlScript.parse(resolvedFile.toString(), fileSysService.getResourceFileContentByLines(resolvedFile));
+            script = scripts.putIfAbsent(key, parsedScript);
+            if (script == null) {
+                script = parsedScript;
+            }
+        }
+
+        return script;
+    }
+
+    /**
+     * Run the statements of the script in order as one JDBC batch.
+     *
+     * @param jdbcTemplate
+     * @param vendor
+     * @param file
+     * @param parameters the placeholder values
+     * @throws SQLException
+     * @throws IOException
+     */
+    public void execute(JdbcTemplate jdbcTemplate, String vendor, Path file, Map<String, String> parameters) throws SQLException, IOException {
+        executeBatch(jdbcTemplate, getScript(vendor, file).render(parameters));
+    }
+
+    /**
+     * Run the statements of a script whose statements do not depend on each
+     * other, such as the indexes of one table. PostgreSQL and Oracle build
+     * indexes on the same table concurrently, so the statements run in
+     * parallel on separate connections there and as one JDBC batch elsewhere.
+     *
+     * @param jdbcTemplate
+     * @param vendor
+     * @param file
+     * @param parameters the placeholder values
+     * @throws SQLException
+     * @throws IOException
+     */
+    public void executeIndependent(JdbcTemplate jdbcTemplate, String vendor, Path file, Map<String, String> parameters) throws SQLException, IOException {
+        List<String> sqls = getScript(vendor, file).render(parameters);
+        switch (vendor) {
+            case "PostgreSQL":
+            case "Oracle":
+                executeParallel(jdbcTemplate, sqls);
+                break;
+            default:
+                executeBatch(jdbcTemplate, sqls);
+        }
+    }
+
+    private void executeBatch(JdbcTemplate jdbcTemplate, List<String> sqls) {
+        if (sqls.size() == 1) {
+            jdbcTemplate.execute(sqls.get(0));
+        } else if (!sqls.isEmpty()) {
+            jdbcTemplate.batchUpdate(sqls.toArray(new String[sqls.size()]));
+        }
+    }
+
+    private void executeParallel(JdbcTemplate jdbcTemplate, List<String> sqls) throws SQLException {
+        if (sqls.size() < 2) {
+            executeBatch(jdbcTemplate, sqls);
+            return;
+        }
+
+        int numOfThreads = Math.min(sqls.size(), Math.min(MAX_NUM_OF_PARALLEL_STATEMENTS, Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(numOfThreads);
+        try {
+            List<Future<?>> futures = new LinkedList<>();
+            for (String sql : sqls) {
+                futures.add(executor.submit(() -> jdbcTemplate.execute(sql)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Script execution was interrupted.", exception);
+        } catch (ExecutionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SQLException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Path resolveDialect(String vendor, Path file) {
+        String dialect = getDialect(vendor);
+        if (dialect != null) {
+            Path parent = file.getParent();
+            Path dialectFile = (parent == null)
+                    ? file.getFileSystem().getPath(dialect, file.getFileName().toString())
+                    : parent.resolve(dialect).resolve(file.getFileName().toString());
+            if (fileSysService.hasResourceFile(dialectFile)) {
+                return dialectFile;
+            }
+        }
+        LOGGER.debug("No {} variant of script {}.", vendor, file);
+
+        return file;
+    }
+
+    private String getDialect(String vendor) {
+        switch (vendor) {
+            case "PostgreSQL":
+                return "postgresql";
+            case "Oracle":
+                return "oracle";
+            case "Microsoft SQL Server":
+                return "sqlserver";
+            default:
+                return null;
+        }
+    }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.service;
+
+import edu.pitt.dbmi.i2b2.database.model.TableColumn;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+import org.springframework.stereotype.Service;
+
+/**
+ * Cache of table column definitions, keyed by datasource, schema and table.
+ * The columns of a table are read from DatabaseMetaData once and reused for
+ * every file loaded into it.
+ *
+ * Oct 18, 2026 11:05:52 AM
+ *
+ * @author agent (agent@local)
+ */
+@Service
+public class TableSchemaCache {
+
+    private final Map<TableKey, List<TableColumn>> cache = new ConcurrentHashMap<>();
+
+    public List<TableColumn> getColumns(DataSource dataSource, String table) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            return getColumns(dataSource, conn, table);
+        }
+    }
+
+    /**
+     * Get the columns of the table, in ordinal order.  The connection must
+     * come from the given datasource. Tables that do not exist are not
+     * cached.
+     *
+     * @param dataSource
+     * @param conn
+     * @param table
+     * @return the columns of the table or an empty list if the table does not
+     * exist
+     * @throws SQLException
+     */
+    public List<TableColumn> getColumns(DataSource dataSource, Connection conn, String table) throws SQLException {
+        TableKey key = new TableKey(dataSource, conn.getSchema(), table);
+        List<TableColumn> columns = cache.get(key);
+        if (columns == null) {
+            columns = readColumns(conn, table);
+            if (!columns.isEmpty()) {
+                cache.put(key, columns);
+            }
+        }
+
+        return columns;
+    }
+
+    /**
+     * Remove the columns of the table from the cache. Must be called whenever
+     * the table is dropped or altered.
+     *
+     * @param dataSource
+     * @param table
+     */
+    public void evict(DataSource dataSource, String table) {
+        cache.keySet().removeIf(key -> key.dataSource == dataSource && key.table.equalsIgnoreCase(table));
+    }
+
+    private List<TableColumn> readColumns(Connection conn, String table) throws SQLException {
+        List<TableColumn> columns = new ArrayList<>();
+
+        DatabaseMetaData metadata = conn.getMetaData();
+
+        // the case of stored table names varies by vendor
+        String[] tableNames = {table, table.toLowerCase(), table.toUpperCase()};
+        for (int i = 0; i < tableNames.length && columns.isEmpty(); i++) {
+            try (ResultSet rs = metadata.getColumns(conn.getCatalog(), conn.getSchema(), tableNames[i], null)) {
+                while (rs.next()) {
+                    columns.add(new TableColumn(
+                            rs.getString("COLUMN_NAME"),
+                            rs.getInt("DATA_TYPE"),
+                            rs.getString("TYPE_NAME"),
+                            rs.getInt("COLUMN_SIZE"),
+                            rs.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls));
+                }
+            }
+        }
+
+        return Collections.unmodifiableList(columns);
+    }
+
+    private static final class TableKey {
+
+        private final DataSource dataSource;
+        private final String schema;
+        private final String table;
+
+        private TableKey(DataSource dataSource, String schema, String table) {
+            this.dataSource = dataSource;
+            this.schema = (schema == null) ? "" : schema.toLowerCase();
+            this.table = table.toLowerCase();
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(dataSource), schema, table);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof TableKey)) {
+                return false;
+            }
+
+            TableKey other = (TableKey) obj;
+
+            return dataSource == other.dataSource
+                    && schema.equals(other.schema)
+                    && table.equals(other.table);
+        }
+
+    }
+
+}
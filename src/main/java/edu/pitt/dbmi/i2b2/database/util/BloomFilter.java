@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.util;
+
+/**
+ * A Bloom filter over 64-bit hashes. Answers "definitely not present" or
+ * "probably present" using k probes derived from one hash by double hashing.
+ *
+ * Oct 18, 2026 7:41:05 PM
+ *
+ * @author agent (agent@local)
+ */
+public class BloomFilter {
+
+    private final long[] bits;
+    private final long numOfBits;
+    private final int numOfHashes;
+
+    /**
+     * @param expectedInsertions
+     * @param falsePositiveRate the wanted false-positive rate, such as 0.01
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        m = Math.max(64, Math.min(m, (long) Integer.MAX_VALUE * Long.SIZE));
+
+        this.bits = new long[(int) ((m + 63) >>> 6)];
+        this.numOfBits = (long) bits.length * Long.SIZE;
+        this.numOfHashes = Math.max(1, (int) Math.round((double) numOfBits / n * Math.log(2)));
+    }
+
+    public void put(long hash) {
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < numOfHashes; i++) {
+            long index = ((h1 + i * h2) & Long.MAX_VALUE) % numOfBits;
+            bits[(int) (index >>> 6)] |= 1L << index;
+        }
+    }
+
+    public boolean mightContain(long hash) {
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < numOfHashes; i++) {
+            long index = ((h1 + i * h2) & Long.MAX_VALUE) % numOfBits;
+            if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public long getNumOfBits() {
+        return numOfBits;
+    }
+
+    public int getNumOfHashes() {
+        return numOfHashes;
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.util;
+
+import java.io.Reader;
+
+/**
+ * A reader over a range of characters of a string. Unlike StringReader, the
+ * characters are read in place instead of copying the range into a new
+ * string.
+ *
+ * Oct 18, 2026 1:12:09 PM
+ *
+ * @author agent (agent@local)
+ */
+public class CharSequenceReader extends Reader {
+
+    private final CharSequence chars;
+    private final int end;
+
+    private int position;
+    private int mark;
+
+    public CharSequenceReader(CharSequence chars, int start, int end) {
+        if (start < 0 || end > chars.length() || start > end) {
+            throw new IndexOutOfBoundsException(String.format("Range [%d, %d) is out of bounds for length %d.", start, end, chars.length()));
+        }
+
+        this.chars = chars;
+        this.end = end;
+        this.position = start;
+        this.mark = start;
+    }
+
+    @Override
+    public int read() {
+        return (position < end) ? chars.charAt(position++) : -1;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) {
+        if (position >= end) {
+            return -1;
+        }
+
+        int numOfChars = Math.min(length, end - position);
+        for (int i = 0; i < numOfChars; i++) {
+            buffer[offset + i] = chars.charAt(position++);
+        }
+
+        return numOfChars;
+    }
+
+    @Override
+    public long skip(long n) {
+        int numOfChars = (int) Math.max(0, Math.min(n, end - position));
+        position += numOfChars;
+
+        return numOfChars;
+    }
+
+    @Override
+    public boolean ready() {
+        return true;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public void mark(int readAheadLimit) {
+        mark = position;
+    }
+
+    @Override
+    public void reset() {
+        position = mark;
+    }
+
+    @Override
+    public void close() {
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.util;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.text.DateFormat;
+import java.text.ParsePosition;
+import java.util.Date;
+
+/**
+ * Converts column values to comparable keys by their column type, for sorting
+ * and range partitioning.
+ *
+ * Oct 18, 2026 6:47:03 PM
+ *
+ * @author agent (agent@local)
+ */
+public final class ColumnValues {
+
+    private ColumnValues() {
+    }
+
+    /**
+     * Convert the value to a comparable key: integers to Long, other numbers
+     * to BigDecimal, dates to their time in milliseconds (Long) and everything
+     * else to the string itself.
+     *
+     * @param value
+     * @param type the java.sql.Types of the column
+     * @param dateFormat
+     * @return the key or null if the value cannot be parsed
+     */
+    public static Comparable<?> toKey(String value, int type, DateFormat dateFormat) {
+        try {
+            switch (type) {
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                case Types.BIGINT:
+                    return Long.parseLong(value);
+                case Types.REAL:
+                case Types.FLOAT:
+                case Types.DOUBLE:
+                case Types.NUMERIC:
+                case Types.DECIMAL:
+                    return new BigDecimal(value);
+                case Types.DATE:
+                case Types.TIME:
+                case Types.TIMESTAMP:
+                    Date date = dateFormat.parse(value, new ParsePosition(0));
+                    return (date == null) ? null : date.getTime();
+                default:
+                    return value;
+            }
+        } catch (NumberFormatException exception) {
+            return null;
+        }
+    }
+
+    public static boolean isNumericType(int type) {
+        switch (type) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public static boolean isDateType(int type) {
+        return type == Types.DATE || type == Types.TIME || type == Types.TIMESTAMP;
+    }
+
+}
@@ -29,10 +29,21 @@ import java.text.SimpleDateFormat;
  */
 public final class DateFormatters {
 
-    public static final DateFormat OBSERVATION_FACTS_DATE_FORMATTER = new SimpleDateFormat("dd-MMM-yy");
-    public static final DateFormat METADATA_DATE_FORMATTER = new SimpleDateFormat("yyyy-MM-dd");
+    public static final DateFormat OBSERVATION_FACTS_DATE_FORMATTER = createDateFormat("dd-MMM-yy");
+    public static final DateFormat METADATA_DATE_FORMATTER = createDateFormat("yyyy-MM-dd");
 
     private DateFormatters() {
     }
 
+    /**
+     * Create a strict date format, so that invalid dates such as month 13 are
+     * rejected instead of rolled over.
+     */
+    private static DateFormat createDateFormat(String pattern) {
+        DateFormat dateFormat = new SimpleDateFormat(pattern);
+        dateFormat.setLenient(false);
+
+        return dateFormat;
+    }
+
 }
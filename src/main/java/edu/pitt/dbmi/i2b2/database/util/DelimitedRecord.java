@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.util;
+
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A delimited line split into fields without copying them. Only the start and
+ * end offsets of each (trimmed) field are kept, so a field is copied only when
+ * it is asked for as a string, and large fields can be streamed from the line
+ * with a reader. The record is reused from line to line.
+ *
+ * Oct 18, 2026 1:25:47 PM
+ *
+ * @author agent (agent@local)
+ */
+public class DelimitedRecord {
+
+    private final Matcher matcher;
+
+    private String line;
+    private int[] starts;
+    private int[] ends;
+    private int size;
+
+    public DelimitedRecord(Pattern delimiter) {
+        this.matcher = delimiter.matcher("");
+        this.starts = new int[32];
+        this.ends = new int[32];
+    }
+
+    public void parse(String line) {
+        this.line = line;
+        this.size = 0;
+
+        int start = 0;
+        matcher.reset(line);
+        while (matcher.find()) {
+            addField(start, matcher.start());
+            start = matcher.end();
+        }
+        addField(start, line.length());
+    }
+
+    private void addField(int start, int end) {
+        // trim the field the same way String.trim does
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getLine() {
+        return line;
+    }
+
+    public int getStart(int index) {
+        return starts[index];
+    }
+
+    public int getEnd(int index) {
+        return ends[index];
+    }
+
+    public int getLength(int index) {
+        return ends[index] - starts[index];
+    }
+
+    public boolean isEmpty(int index) {
+        return starts[index] == ends[index];
+    }
+
+    public String getString(int index) {
+        return line.substring(starts[index], ends[index]);
+    }
+
+    /**
+     * Get the field as a string from the dictionary, so that repeated values
+     * share one instance.
+     *
+     * @param index
+     * @param dictionary
+     * @return
+     */
+    public String getString(int index, StringDictionary dictionary) {
+        return dictionary.get(line, starts[index], ends[index]);
+    }
+
+    public Reader getReader(int index) {
+        return new CharSequenceReader(line, starts[index], ends[index]);
+    }
+
+}
@@ -0,0 +1,439 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Sorts delimited lines by one or more key columns using a parallel external
+ * merge sort. Lines are read into chunks that fit in the memory budget; each
+ * chunk is sorted and spilled to a temporary file by a worker thread, and the
+ * spilled runs are merged into a single sorted stream of lines.
+ *
+ * Keys are compared by their column type: numbers numerically, dates by the
+ * date format, and everything else as strings. Empty or unparsable keys sort
+ * first.
+ *
+ * Oct 18, 2026 5:26:41 PM
+ *
+ * @author agent (agent@local)
+ */
+public class ExternalSorter {
+
+    /**
+     * Maximum number of runs merged at once.
+     */
+    private static final int MAX_FAN_IN = 128;
+
+    /**
+     * Estimated heap bytes of a line besides its characters.
+     */
+    private static final int LINE_OVERHEAD = 96;
+
+    /**
+     * Maximum number of seconds to wait for the spill workers to stop.
+     */
+    private static final int SHUTDOWN_TIMEOUT = 60;
+
+    private static final Comparator<Comparable<Object>[]> KEY_COMPARATOR = ExternalSorter::compareKeys;
+
+    private final Pattern delimiter;
+    private final int[] keyIndexes;
+    private final int[] keyTypes;
+    private final DateFormat dateFormat;
+    private final long memoryBudget;
+    private final int parallelism;
+
+    /**
+     * @param delimiter
+     * @param keyIndexes the indexes of the key columns, most significant
+     * first
+     * @param keyTypes the java.sql.Types of the key columns
+     * @param dateFormat
+     * @param memoryBudget approximate number of heap bytes used for sorting
+     * @param parallelism number of chunks sorted at the same time
+     */
+    public ExternalSorter(Pattern delimiter, int[] keyIndexes, int[] keyTypes, DateFormat dateFormat, long memoryBudget, int parallelism) {
+        this.delimiter = delimiter;
+        this.keyIndexes = keyIndexes;
+        this.keyTypes = keyTypes;
+        this.dateFormat = dateFormat;
+        this.memoryBudget = memoryBudget;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Sort the lines. Blank lines and lines that are commented out are
+     * dropped. The returned lines must be closed to delete the temporary
+     * files.
+     *
+     * @param lines
+     * @return
+     * @throws IOException
+     */
+    public SortedLines sort(LineReader lines) throws IOException {
+        // the chunk being filled plus the chunks being sorted must fit in the budget
+        long chunkBudget = Math.max(1024 * 1024, memoryBudget / (parallelism + 1));
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        Semaphore permits = new Semaphore(parallelism);
+        Path tempDirectory = null;
+        Throwable failure = null;
+        try {
+            List<Future<Path>> futures = new LinkedList<>();
+            List<String> chunk = new ArrayList<>();
+            long chunkSize = 0;
+            for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                    continue;
+                }
+
+                chunk.add(line);
+                chunkSize += (long) line.length() * Character.BYTES + LINE_OVERHEAD;
+                if (chunkSize >= chunkBudget) {
+                    if (tempDirectory == null) {
+                        tempDirectory = Files.createTempDirectory("i2b2-sort-");
+                    }
+                    permits.acquire();
+                    futures.add(executor.submit(createSpillTask(chunk, tempDirectory, permits)));
+                    chunk = new ArrayList<>();
+                    chunkSize = 0;
+                }
+            }
+
+            // everything fits in memory
+            if (futures.isEmpty()) {
+                return new SortedLines(sortChunk(chunk, (DateFormat) dateFormat.clone()).iterator());
+            }
+
+            if (!chunk.isEmpty()) {
+                permits.acquire();
+                futures.add(executor.submit(createSpillTask(chunk, tempDirectory, permits)));
+            }
+
+            List<Path> runs = new ArrayList<>(futures.size());
+            for (Future<Path> future : futures) {
+                runs.add(future.get());
+            }
+
+            // merge in passes so that no more than MAX_FAN_IN files are open at once
+            while (runs.size() > MAX_FAN_IN) {
+                List<Path> mergedRuns = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += MAX_FAN_IN) {
+                    List<Path> group = runs.subList(i, Math.min(runs.size(), i + MAX_FAN_IN));
+                    Path mergedRun = Files.createTempFile(tempDirectory, "run-", ".tsv");
+                    try (MergedRuns merged = new MergedRuns(group, (DateFormat) dateFormat.clone());
+                            BufferedWriter writer = Files.newBufferedWriter(mergedRun, StandardCharsets.UTF_8)) {
+                        for (String line = merged.readLine(); line != null; line = merged.readLine()) {
+                            writer.write(line);
+                            writer.newLine();
+                        }
+                    }
+                    for (Path run : group) {
+                        Files.delete(run);
+                    }
+                    mergedRuns.add(mergedRun);
+                }
+                runs = mergedRuns;
+            }
+
+            SortedLines sortedLines = new SortedLines(new MergedRuns(runs, (DateFormat) dateFormat.clone()), tempDirectory);
+            tempDirectory = null;
+
+            return sortedLines;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            IOException interrupted = new InterruptedIOException("Sorting was interrupted.");
+            failure = interrupted;
+            throw interrupted;
+        } catch (ExecutionException exception) {
+            Throwable cause = exception.getCause();
+            IOException spillException = (cause instanceof IOException) ? (IOException) cause : new IOException(cause);
+            failure = spillException;
+            throw spillException;
+        } catch (IOException | RuntimeException exception) {
+            failure = exception;
+            throw exception;
+        } finally {
+            // the spill workers must stop writing before their files are deleted
+            shutdown(executor);
+            if (tempDirectory != null) {
+                try {
+                    deleteDirectory(tempDirectory);
+                } catch (IOException exception) {
+                    if (failure == null) {
+                        throw exception;
+                    }
+                    failure.addSuppressed(exception);
+                }
+            }
+        }
+    }
+
+    private static void shutdown(ExecutorService executor) {
+        executor.shutdownNow();
+
+        // wait even if this thread was interrupted, then restore its status
+        boolean interrupted = Thread.interrupted();
+        try {
+            while (true) {
+                try {
+                    executor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS);
+                    break;
+                } catch (InterruptedException exception) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private Callable<Path> createSpillTask(List<String> chunk, Path tempDirectory, Semaphore permits) {
+        DateFormat chunkDateFormat = (DateFormat) dateFormat.clone();
+
+        return () -> {
+            try {
+                Path run = Files.createTempFile(tempDirectory, "run-", ".tsv");
+                try (BufferedWriter writer = Files.newBufferedWriter(run, StandardCharsets.UTF_8)) {
+                    for (String line : sortChunk(chunk, chunkDateFormat)) {
+                        writer.write(line);
+                        writer.newLine();
+                    }
+                }
+
+                return run;
+            } finally {
+                permits.release();
+            }
+        };
+    }
+
+    private List<String> sortChunk(List<String> chunk, DateFormat format) {
+        DelimitedRecord record = new DelimitedRecord(delimiter);
+        List<KeyedLine> keyedLines = new ArrayList<>(chunk.size());
+        for (String line : chunk) {
+            keyedLines.add(new KeyedLine(extractKey(record, line, format), line));
+        }
+        keyedLines.sort((a, b) -> compareKeys(a.key, b.key));
+
+        return keyedLines.stream()
+                .map(keyedLine -> keyedLine.line)
+                .collect(Collectors.toList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Comparable<Object>[] extractKey(DelimitedRecord record, String line, DateFormat format) {
+        record.parse(line.trim());
+
+        Comparable<?>[] key = new Comparable<?>[keyIndexes.length];
+        for (int i = 0; i < keyIndexes.length; i++) {
+            int index = keyIndexes[i];
+            if (index < record.size() && !record.isEmpty(index)) {
+                key[i] = ColumnValues.toKey(record.getString(index), keyTypes[i], format);
+            }
+        }
+
+        return (Comparable<Object>[]) key;
+    }
+
+    private static int compareKeys(Comparable<Object>[] a, Comparable<Object>[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != b[i]) {
+                if (a[i] == null) {
+                    return -1;
+                }
+                if (b[i] == null) {
+                    return 1;
+                }
+
+                int result = a[i].compareTo(b[i]);
+                if (result != 0) {
+                    return result;
+                }
+            }
+        }
+
+        return 0;
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    private static final class KeyedLine {
+
+        private final Comparable<Object>[] key;
+        private final String line;
+
+        private KeyedLine(Comparable<Object>[] key, String line) {
+            this.key = key;
+            this.line = line;
+        }
+
+    }
+
+    /**
+     * K-way merge of sorted runs.
+     */
+    private final class MergedRuns implements LineReader, Closeable {
+
+        private final List<BufferedReader> readers = new LinkedList<>();
+        private final PriorityQueue<Cursor> cursors = new PriorityQueue<>((a, b) -> KEY_COMPARATOR.compare(a.key, b.key));
+        private final DelimitedRecord record = new DelimitedRecord(delimiter);
+        private final DateFormat format;
+
+        private MergedRuns(List<Path> runs, DateFormat format) throws IOException {
+            this.format = format;
+            try {
+                for (Path run : runs) {
+                    BufferedReader reader = Files.newBufferedReader(run, StandardCharsets.UTF_8);
+                    readers.add(reader);
+                    advance(new Cursor(reader));
+                }
+            } catch (IOException exception) {
+                close();
+                throw exception;
+            }
+        }
+
+        private void advance(Cursor cursor) throws IOException {
+            cursor.line = cursor.reader.readLine();
+            if (cursor.line != null) {
+                cursor.key = extractKey(record, cursor.line, format);
+                cursors.add(cursor);
+            }
+        }
+
+        @Override
+        public String readLine() throws IOException {
+            Cursor cursor = cursors.poll();
+            if (cursor == null) {
+                return null;
+            }
+
+            String line = cursor.line;
+            advance(cursor);
+
+            return line;
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException closeException = null;
+            for (BufferedReader reader : readers) {
+                try {
+                    reader.close();
+                } catch (IOException exception) {
+                    closeException = exception;
+                }
+            }
+            if (closeException != null) {
+                throw closeException;
+            }
+        }
+
+    }
+
+    private static final class Cursor {
+
+        private final BufferedReader reader;
+        private String line;
+        private Comparable<Object>[] key;
+
+        private Cursor(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+    }
+
+    /**
+     * The sorted lines. Closing them deletes the temporary files.
+     */
+    public static final class SortedLines implements LineReader, Closeable {
+
+        private final LineReader lines;
+        private final Closeable runs;
+        private final Path tempDirectory;
+
+        private SortedLines(Iterator<String> lines) {
+            this.lines = () -> lines.hasNext() ? lines.next() : null;
+            this.runs = null;
+            this.tempDirectory = null;
+        }
+
+        private SortedLines(MergedRuns runs, Path tempDirectory) {
+            this.lines = runs;
+            this.runs = runs;
+            this.tempDirectory = tempDirectory;
+        }
+
+        @Override
+        public String readLine() throws IOException {
+            return lines.readLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (runs != null) {
+                    runs.close();
+                }
+            } finally {
+                if (tempDirectory != null) {
+                    deleteDirectory(tempDirectory);
+                }
+            }
+        }
+
+    }
+
+}
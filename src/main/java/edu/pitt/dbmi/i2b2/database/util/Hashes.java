@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.util;
+
+/**
+ * Non-cryptographic hash functions for strings.
+ *
+ * Oct 18, 2026 9:10:48 AM
+ *
+ * @author agent (agent@local)
+ */
+public final class Hashes {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private Hashes() {
+    }
+
+    public static long hash64(CharSequence value) {
+        return hash64(value, 0, value.length());
+    }
+
+    /**
+     * Compute a 64-bit hash of the characters from start (inclusive) to end
+     * (exclusive) without copying them. The result is the same as hashing
+     * value.subSequence(start, end).
+     *
+     * @param value
+     * @param start
+     * @param end
+     * @return
+     */
+    public static long hash64(CharSequence value, int start, int end) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = start; i < end; i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+
+        return mix64(hash);
+    }
+
+    /**
+     * MurmurHash3 64-bit finalizer. Spreads the entropy of the input over all
+     * of the bits.
+     *
+     * @param hash
+     * @return
+     */
+    public static long mix64(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+
+}
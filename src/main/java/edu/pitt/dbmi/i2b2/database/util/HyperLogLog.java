@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.util;
+
+/**
+ * HyperLogLog cardinality estimator.
+ *
+ * Oct 18, 2026 9:14:32 AM
+ *
+ * @author agent (agent@local)
+ */
+public class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 12;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("Precision must be between 4 and 18.");
+        }
+
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public void add(CharSequence value) {
+        addHash(Hashes.hash64(value));
+    }
+
+    public void addHash(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - precision));
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge estimators of different precision.");
+        }
+
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public long estimate() {
+        int numOfRegisters = registers.length;
+
+        double sum = 0;
+        int numOfZeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                numOfZeros++;
+            }
+        }
+
+        double alpha = 0.7213 / (1 + 1.079 / numOfRegisters);
+        double estimate = alpha * numOfRegisters * numOfRegisters / sum;
+
+        // use linear counting for small cardinalities
+        if (estimate <= 2.5 * numOfRegisters && numOfZeros > 0) {
+            estimate = numOfRegisters * Math.log((double) numOfRegisters / numOfZeros);
+        }
+
+        return Math.round(estimate);
+    }
+
+}
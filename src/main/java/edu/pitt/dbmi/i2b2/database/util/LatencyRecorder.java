@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.util;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records latencies and reports their percentiles.
+ *
+ * Oct 18, 2026 3:51:26 PM
+ *
+ * @author agent (agent@local)
+ */
+public class LatencyRecorder {
+
+    private long[] latencies = new long[64];
+    private int count;
+
+    public void record(long nanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = nanos;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Get the latency at the given percentile, using the nearest-rank method.
+     *
+     * @param percentile between 0 (exclusive) and 100 (inclusive)
+     * @return the latency in milliseconds, or 0 if nothing was recorded
+     */
+    public double getPercentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * count);
+
+        return sorted[Math.max(0, rank - 1)] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.util;
+
+import java.io.IOException;
+
+/**
+ * A source of lines, read one at a time. BufferedReader::readLine is one.
+ *
+ * Oct 18, 2026 5:20:14 PM
+ *
+ * @author agent (agent@local)
+ */
+@FunctionalInterface
+public interface LineReader {
+
+    /**
+     * Read the next line.
+     *
+     * @return the next line or null if there are no more lines
+     * @throws IOException
+     */
+    String readLine() throws IOException;
+
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An exact set of strings stored outside of the Java heap. The characters
+ * live in one direct buffer and the hash table in another, so millions of
+ * codes cost the garbage collector nothing and a lookup from a range of a
+ * line allocates nothing.
+ *
+ * Not thread-safe for writes. Lookups are safe once the set is built.
+ *
+ * Oct 18, 2026 7:48:22 PM
+ *
+ * @author agent (agent@local)
+ */
+public class OffHeapStringSet {
+
+    private static final int INITIAL_CAPACITY = 1 << 16;
+
+    /**
+     * Each slot holds the upper 32 bits of the hash and the offset + 1 of the
+     * entry in the arena. Zero marks an empty slot.
+     */
+    private ByteBuffer table;
+    private int capacity;
+
+    /**
+     * Each entry is its length followed by its characters.
+     */
+    private ByteBuffer arena;
+
+    private int size;
+
+    public OffHeapStringSet() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public OffHeapStringSet(int expectedSize) {
+        this.capacity = Integer.highestOneBit(Math.max(16, expectedSize) * 2 - 1) << 1;
+        this.table = ByteBuffer.allocateDirect(capacity * Long.BYTES);
+        this.arena = ByteBuffer.allocateDirect((int) Math.min(Integer.MAX_VALUE - 1, Math.max(1024, expectedSize * 32L)));
+    }
+
+    public boolean add(String value) {
+        return add(Hashes.hash64(value), value);
+    }
+
+    /**
+     * Add the value.
+     *
+     * @param hash Hashes.hash64 of the value
+     * @param value
+     * @return true if the value was not in the set
+     */
+    public boolean add(long hash, String value) {
+        int slot = findSlot(hash, value, 0, value.length());
+        if (table.getLong(slot * Long.BYTES) != 0) {
+            return false;
+        }
+
+        int entrySize = Integer.BYTES + value.length() * Character.BYTES;
+        if (arena.remaining() < entrySize) {
+            growArena(entrySize);
+        }
+        int offset = arena.position();
+        arena.putInt(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            arena.putChar(value.charAt(i));
+        }
+        table.putLong(slot * Long.BYTES, toSlotValue(hash, offset));
+
+        if (++size > capacity / 2) {
+            growTable();
+        }
+
+        return true;
+    }
+
+    public boolean contains(CharSequence value) {
+        return contains(Hashes.hash64(value), value, 0, value.length());
+    }
+
+    /**
+     * Test whether the characters from start (inclusive) to end (exclusive)
+     * are in the set.
+     *
+     * @param hash Hashes.hash64 of the range
+     * @param value
+     * @param start
+     * @param end
+     * @return
+     */
+    public boolean contains(long hash, CharSequence value, int start, int end) {
+        return table.getLong(findSlot(hash, value, start, end) * Long.BYTES) != 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of bytes held outside of the heap
+     */
+    public long getOffHeapBytes() {
+        return (long) table.capacity() + arena.capacity();
+    }
+
+    private int findSlot(long hash, CharSequence value, int start, int end) {
+        int mask = capacity - 1;
+        int hashHigh = (int) (hash >>> 32);
+        for (int slot = (int) hash & mask;; slot = (slot + 1) & mask) {
+            long slotValue = table.getLong(slot * Long.BYTES);
+            if (slotValue == 0) {
+                return slot;
+            }
+            if ((int) (slotValue >>> 32) == hashHigh && equalsEntry((int) slotValue - 1, value, start, end)) {
+                return slot;
+            }
+        }
+    }
+
+    private boolean equalsEntry(int offset, CharSequence value, int start, int end) {
+        int length = arena.getInt(offset);
+        if (length != end - start) {
+            return false;
+        }
+
+        int position = offset + Integer.BYTES;
+        for (int i = start; i < end; i++, position += Character.BYTES) {
+            if (arena.getChar(position) != value.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static long toSlotValue(long hash, int offset) {
+        return (hash & 0xFFFFFFFF00000000L) | ((offset + 1) & 0xFFFFFFFFL);
+    }
+
+    private void growArena(int entrySize) {
+        long newCapacity = Math.max((long) arena.capacity() * 2, (long) arena.position() + entrySize);
+        if (newCapacity > Integer.MAX_VALUE - 1) {
+            throw new IllegalStateException("Set is too large to be stored off the heap.");
+        }
+
+        ByteBuffer newArena = ByteBuffer.allocateDirect((int) newCapacity);
+        arena.flip();
+        newArena.put(arena);
+        arena = newArena;
+    }
+
+    private void growTable() {
+        ByteBuffer oldTable = table;
+        int oldCapacity = capacity;
+
+        capacity = oldCapacity * 2;
+        table = ByteBuffer.allocateDirect(capacity * Long.BYTES);
+
+        int mask = capacity - 1;
+        for (int i = 0; i < oldCapacity; i++) {
+            long slotValue = oldTable.getLong(i * Long.BYTES);
+            if (slotValue != 0) {
+                // the low bits of the hash are not kept, so rehash the entry
+                int offset = (int) slotValue - 1;
+                long hash = rehash(offset);
+                int slot = (int) hash & mask;
+                while (table.getLong(slot * Long.BYTES) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table.putLong(slot * Long.BYTES, slotValue);
+            }
+        }
+    }
+
+    private long rehash(int offset) {
+        int length = arena.getInt(offset);
+        StringBuilder value = new StringBuilder(length);
+        int position = offset + Integer.BYTES;
+        for (int i = 0; i < length; i++, position += Character.BYTES) {
+            value.append(arena.getChar(position));
+        }
+
+        return Hashes.hash64(value);
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.util;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Passes through the lines whose key column is in a reference set and writes
+ * the others, the orphans, to a side file. Orphans are counted by the prefix
+ * of their key, the part before the first ':', such as ICD10 in ICD10:E11.9.
+ *
+ * The side file is only created if there are orphans.
+ *
+ * Oct 18, 2026 8:03:44 PM
+ *
+ * @author agent (agent@local)
+ */
+public class ReferenceCheckingLineReader implements LineReader, Closeable {
+
+    private final LineReader lines;
+    private final DelimitedRecord record;
+    private final int keyIndex;
+    private final ReferenceSet references;
+    private final Path orphanFile;
+    private final String header;
+
+    private final Map<String, Long> orphanCounts = new TreeMap<>();
+    private BufferedWriter orphanWriter;
+    private long numOfOrphans;
+
+    /**
+     * @param lines the lines, without the header
+     * @param delimiter
+     * @param keyIndex the index of the key column
+     * @param references
+     * @param orphanFile
+     * @param header the header line written to the side file
+     */
+    public ReferenceCheckingLineReader(LineReader lines, Pattern delimiter, int keyIndex, ReferenceSet references, Path orphanFile, String header) {
+        this.lines = lines;
+        this.record = new DelimitedRecord(delimiter);
+        this.keyIndex = keyIndex;
+        this.references = references;
+        this.orphanFile = orphanFile;
+        this.header = header;
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            String trimmed = line.trim();
+
+            // blank and commented-out lines are skipped by the loader
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                return line;
+            }
+
+            record.parse(trimmed);
+            if (keyIndex < record.size()
+                    && references.contains(trimmed, record.getStart(keyIndex), record.getEnd(keyIndex))) {
+                return line;
+            }
+
+            writeOrphan(trimmed);
+        }
+
+        return null;
+    }
+
+    private void writeOrphan(String line) throws IOException {
+        if (orphanWriter == null) {
+            orphanWriter = Files.newBufferedWriter(orphanFile);
+            orphanWriter.write(header);
+            orphanWriter.newLine();
+        }
+        orphanWriter.write(line);
+        orphanWriter.newLine();
+
+        String prefix = "";
+        if (keyIndex < record.size()) {
+            int start = record.getStart(keyIndex);
+            int end = record.getEnd(keyIndex);
+            int colon = line.indexOf(':', start);
+            prefix = line.substring(start, (colon >= 0 && colon < end) ? colon : end);
+        }
+        orphanCounts.merge(prefix, 1L, Long::sum);
+        numOfOrphans++;
+    }
+
+    public long getNumOfOrphans() {
+        return numOfOrphans;
+    }
+
+    /**
+     * @return the number of orphans by key prefix
+     */
+    public Map<String, Long> getOrphanCounts() {
+        return Collections.unmodifiableMap(orphanCounts);
+    }
+
+    public Path getOrphanFile() {
+        return orphanFile;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (orphanWriter != null) {
+            orphanWriter.close();
+        }
+    }
+
+}
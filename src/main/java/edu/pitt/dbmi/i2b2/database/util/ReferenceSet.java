@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.util;
+
+/**
+ * The values of a referenced column, such as concept_dimension.concept_cd,
+ * for checking foreign keys while parsing. The Bloom filter rejects most
+ * missing values with a few memory probes and the off-heap set confirms the
+ * rest exactly.
+ *
+ * Oct 18, 2026 7:55:37 PM
+ *
+ * @author agent (agent@local)
+ */
+public class ReferenceSet {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final BloomFilter bloomFilter;
+    private final OffHeapStringSet values;
+
+    public ReferenceSet(long expectedSize) {
+        int size = (int) Math.min(Integer.MAX_VALUE / 4, Math.max(1, expectedSize));
+        this.bloomFilter = new BloomFilter(size, FALSE_POSITIVE_RATE);
+        this.values = new OffHeapStringSet(size);
+    }
+
+    public void add(String value) {
+        long hash = Hashes.hash64(value);
+        bloomFilter.put(hash);
+        values.add(hash, value);
+    }
+
+    /**
+     * Test whether the characters from start (inclusive) to end (exclusive)
+     * are one of the values.
+     *
+     * @param line
+     * @param start
+     * @param end
+     * @return
+     */
+    public boolean contains(CharSequence line, int start, int end) {
+        long hash = Hashes.hash64(line, start, end);
+
+        return bloomFilter.mightContain(hash) && values.contains(hash, line, start, end);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public long getOffHeapBytes() {
+        return values.getOffHeapBytes();
+    }
+
+}
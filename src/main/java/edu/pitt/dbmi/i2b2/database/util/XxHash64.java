@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The xxHash64 hash function over a range of a byte buffer, such as a
+ * memory-mapped file.
+ *
+ * Oct 18, 2026 9:14:26 PM
+ *
+ * @author agent (agent@local)
+ */
+public final class XxHash64 {
+
+    private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME64_3 = 0x165667B19E3779F9L;
+    private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+
+    private XxHash64() {
+    }
+
+    public static long hash(byte[] bytes, long seed) {
+        return hash(ByteBuffer.wrap(bytes), 0, bytes.length, seed);
+    }
+
+    /**
+     * Hash the bytes from offset to offset + length of the buffer. The byte
+     * order and position of the buffer are left unchanged.
+     *
+     * @param buffer
+     * @param offset
+     * @param length
+     * @param seed
+     * @return
+     */
+    public static long hash(ByteBuffer buffer, int offset, int length, long seed) {
+        ByteBuffer buf = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+
+        int position = offset;
+        int end = offset + length;
+        long hash;
+        if (length >= 32) {
+            long v1 = seed + PRIME64_1 + PRIME64_2;
+            long v2 = seed + PRIME64_2;
+            long v3 = seed;
+            long v4 = seed - PRIME64_1;
+            int limit = end - 32;
+            do {
+                v1 = round(v1, buf.getLong(position));
+                v2 = round(v2, buf.getLong(position + 8));
+                v3 = round(v3, buf.getLong(position + 16));
+                v4 = round(v4, buf.getLong(position + 24));
+                position += 32;
+            } while (position <= limit);
+
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = mergeRound(hash, v1);
+            hash = mergeRound(hash, v2);
+            hash = mergeRound(hash, v3);
+            hash = mergeRound(hash, v4);
+        } else {
+            hash = seed + PRIME64_5;
+        }
+        hash += length;
+
+        for (; position + 8 <= end; position += 8) {
+            hash ^= round(0, buf.getLong(position));
+            hash = Long.rotateLeft(hash, 27) * PRIME64_1 + PRIME64_4;
+        }
+        if (position + 4 <= end) {
+            hash ^= (buf.getInt(position) & 0xFFFFFFFFL) * PRIME64_1;
+            hash = Long.rotateLeft(hash, 23) * PRIME64_2 + PRIME64_3;
+            position += 4;
+        }
+        for (; position < end; position++) {
+            hash ^= (buf.get(position) & 0xFFL) * PRIME64_5;
+            hash = Long.rotateLeft(hash, 11) * PRIME64_1;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIME64_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME64_3;
+        hash ^= hash >>> 32;
+
+        return hash;
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * PRIME64_2;
+        acc = Long.rotateLeft(acc, 31);
+
+        return acc * PRIME64_1;
+    }
+
+    private static long mergeRound(long acc, long val) {
+        acc ^= round(0, val);
+
+        return acc * PRIME64_1 + PRIME64_4;
+    }
+
+}
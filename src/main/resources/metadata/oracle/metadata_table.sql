@@ -1,4 +1,4 @@
-CREATE TABLE I2B2 (
+CREATE TABLE ${table_name} (
     "C_HLEVEL" NUMBER(22,0) NOT NULL,
     "C_FULLNAME" VARCHAR2(700) NOT NULL,
     "C_NAME" VARCHAR2(2000) NOT NULL,
@@ -1,4 +1,4 @@
-CREATE TABLE IF NOT EXISTS I2B2 (
+CREATE ${table_persistence} TABLE IF NOT EXISTS ${table_name} (
   C_HLEVEL INT NOT NULL,
   C_FULLNAME VARCHAR(700) NOT NULL,
   C_NAME VARCHAR(2000) NOT NULL,
@@ -1,4 +1,4 @@
-CREATE TABLE I2B2 (
+CREATE TABLE ${table_name} (
   "C_HLEVEL" INT NOT NULL,
   "C_FULLNAME" VARCHAR(700) NOT NULL,
   "C_NAME" VARCHAR(2000) NOT NULL,
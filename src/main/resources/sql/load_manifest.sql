@@ -0,0 +1,9 @@
+CREATE TABLE ${table_name} (
+  TABLE_NAME VARCHAR(128) NOT NULL,
+  FILE_NAME VARCHAR(700) NOT NULL,
+  FILE_SIZE BIGINT NOT NULL,
+  LAST_MODIFIED BIGINT NOT NULL,
+  CONTENT_HASH VARCHAR(16) NOT NULL,
+  SOURCESYSTEM_CD VARCHAR(4000) NULL,
+  PRIMARY KEY (TABLE_NAME, FILE_NAME)
+)
@@ -0,0 +1,9 @@
+CREATE TABLE ${table_name} (
+    "TABLE_NAME" VARCHAR2(128) NOT NULL,
+    "FILE_NAME" VARCHAR2(700) NOT NULL,
+    "FILE_SIZE" NUMBER(19,0) NOT NULL,
+    "LAST_MODIFIED" NUMBER(19,0) NOT NULL,
+    "CONTENT_HASH" VARCHAR2(16) NOT NULL,
+    "SOURCESYSTEM_CD" VARCHAR2(4000) NULL,
+    PRIMARY KEY ("TABLE_NAME", "FILE_NAME")
+)
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.model;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Oct 18, 2026 11:48:20 PM
+ *
+ * @author agent (agent@local)
+ */
+public class PartitionSchemeTest {
+
+    private final TablePartition p2019 = new TablePartition("p2019", null, 2020L, "VALUES LESS THAN (2020)");
+    private final TablePartition p2020 = new TablePartition("p2020", 2020L, 2021L, "VALUES LESS THAN (2021)");
+    private final TablePartition p2021 = new TablePartition("p2021", 2021L, 2022L, "VALUES LESS THAN (2022)");
+    private final TablePartition pMax = new TablePartition("pmax", 2022L, null, "VALUES LESS THAN (MAXVALUE)");
+
+    @Test
+    public void testRouteToTheRangeOfTheKey() {
+        // out of order, as the catalog may list them
+        PartitionScheme scheme = new PartitionScheme("start_year", Types.INTEGER, Arrays.asList(p2021, pMax, p2019, p2020), null);
+
+        assertSame(p2019, scheme.route(key(1999)));
+        assertSame(p2019, scheme.route(key(2019)));
+        assertSame(p2020, scheme.route(key(2020)));
+        assertSame(p2021, scheme.route(key(2021)));
+        assertSame(pMax, scheme.route(key(2022)));
+        assertSame(pMax, scheme.route(key(3000)));
+    }
+
+    @Test
+    public void testRouteOutsideOfEveryRangeToTheDefaultPartition() {
+        TablePartition defaultPartition = new TablePartition("p_default", null, null, "DEFAULT");
+        PartitionScheme scheme = new PartitionScheme("start_year", Types.BIGINT, Arrays.asList(p2020, p2021), defaultPartition);
+
+        assertSame(defaultPartition, scheme.route(key(2019)));
+        assertSame(p2020, scheme.route(key(2020)));
+        assertSame(defaultPartition, scheme.route(key(2022)));
+        assertSame(defaultPartition, scheme.route(null));
+
+        assertNull(new PartitionScheme("start_year", Types.BIGINT, Arrays.asList(p2020), null).route(key(2022)));
+    }
+
+    @Test
+    public void testStringKeysAreNotRoutable() {
+        PartitionScheme scheme = new PartitionScheme("concept_cd", Types.VARCHAR,
+                Collections.singletonList(new TablePartition("p_icd", null, "J", "VALUES LESS THAN ('J')")), null);
+
+        assertFalse(scheme.isRoutable());
+        assertThrows(UnsupportedOperationException.class, () -> scheme.route(key("ICD10:E11")));
+        assertTrue(new PartitionScheme("start_date", Types.TIMESTAMP, Collections.emptyList(), null).isRoutable());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> key(Object value) {
+        return (Comparable<Object>) (value instanceof Integer ? Long.valueOf((Integer) value) : value);
+    }
+
+}
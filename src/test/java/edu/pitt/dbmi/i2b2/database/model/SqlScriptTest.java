@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Oct 19, 2026 12:40:27 AM
+ *
+ * @author agent (agent@local)
+ */
+public class SqlScriptTest {
+
+    @Test
+    public void testSemicolonsInsideQuotesDoNotEndStatements() throws SQLException {
+        SqlScript script = SqlScript.parse("quotes.sql", Arrays.asList(
+                "INSERT INTO notes VALUES ('a;b', 'it''s; fine');",
+                "CREATE TABLE \"odd;name\" (id INT);",
+                "SELECT 1"));
+
+        assertEquals(Arrays.asList(
+                "INSERT INTO notes VALUES ('a;b', 'it''s; fine')",
+                "CREATE TABLE \"odd;name\" (id INT)",
+                "SELECT 1"), script.render(Collections.emptyMap()));
+    }
+
+    @Test
+    public void testCommentsAreSkippedOutsideOfQuotes() throws SQLException {
+        SqlScript script = SqlScript.parse("comments.sql", Arrays.asList(
+                "-- create the table",
+                "CREATE TABLE notes (",
+                "  text VARCHAR(10) DEFAULT 'multi",
+                "-- line'",
+                ");",
+                "  -- trailing comment"));
+
+        assertEquals(1, script.size());
+        assertEquals(Collections.singletonList("CREATE TABLE notes (\n  text VARCHAR(10) DEFAULT 'multi\n-- line'\n)"),
+                script.render(Collections.emptyMap()));
+    }
+
+    @Test
+    public void testPlaceholdersAreReplacedAndNothingElse() throws SQLException {
+        SqlScript script = SqlScript.parse("index.sql", Collections.singletonList(
+                "CREATE INDEX ${index_prefix}_table_name_idx ON ${table_name} (c_table_name);"));
+
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("index_prefix", "meta");
+        parameters.put("table_name", "table");
+
+        assertEquals(Collections.singletonList("CREATE INDEX meta_table_name_idx ON table (c_table_name)"),
+                script.render(parameters));
+    }
+
+    @Test
+    public void testMissingPlaceholderValue() {
+        SqlScript script = SqlScript.parse("index.sql", Collections.singletonList(
+                "CREATE INDEX ${index_prefix}_idx ON ${table_name} (c_name)"));
+
+        SQLException exception = assertThrows(SQLException.class,
+                () -> script.render(Collections.singletonMap("index_prefix", "meta")));
+        assertEquals("Script index.sql has no value for ${table_name}.", exception.getMessage());
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.pitt.dbmi.i2b2.database.util.DateFormatters;
+import edu.pitt.dbmi.i2b2.database.util.DelimitedRecord;
+import edu.pitt.dbmi.i2b2.database.util.ReferenceSet;
+import edu.pitt.dbmi.i2b2.database.util.StringDictionary;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ *
+ * Oct 18, 2026 10:58:09 PM
+ *
+ * @author agent (agent@local)
+ */
+public class AbstractDBServiceTest {
+
+    private static final int[] COLUMN_TYPES = {Types.INTEGER, Types.CLOB};
+
+    private final AbstractDBService dbService = new AbstractDBService(null, null, null) {
+    };
+
+    @Test
+    public void testClobIsStreamedWithIntLength() throws Exception {
+        PreparedStatement stmt = mock(PreparedStatement.class);
+
+        dbService.setColumns(stmt, COLUMN_TYPES, new StringDictionary[2], parse("1\tlong text"), DateFormatters.METADATA_DATE_FORMATTER);
+
+        verify(stmt).setInt(1, 1);
+        verify(stmt).setCharacterStream(eq(2), any(Reader.class), eq(9));
+    }
+
+    @Test
+    public void testClobFallsBackToString() throws Exception {
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        doThrow(new SQLFeatureNotSupportedException()).when(stmt).setCharacterStream(anyInt(), any(Reader.class), anyInt());
+
+        dbService.setColumns(stmt, COLUMN_TYPES, new StringDictionary[2], parse("1\tlong text"), DateFormatters.METADATA_DATE_FORMATTER);
+
+        verify(stmt).setString(2, "long text");
+    }
+
+    @Test
+    public void testReferenceSetIsCountedInTheSchema() throws Exception {
+        ResultSet count = mock(ResultSet.class);
+        when(count.next()).thenReturn(true, false);
+        when(count.getLong(1)).thenReturn(2L);
+
+        ResultSet values = mock(ResultSet.class);
+        when(values.next()).thenReturn(true, true, false);
+        when(values.getString(1)).thenReturn("ICD10:E11.9", "LOINC:2345-7");
+
+        Statement stmt = mock(Statement.class);
+        when(stmt.executeQuery("SELECT COUNT(*) FROM i2b2demodata.concept_dimension")).thenReturn(count);
+        when(stmt.executeQuery("SELECT concept_cd FROM i2b2demodata.concept_dimension WHERE concept_cd IS NOT NULL")).thenReturn(values);
+
+        Connection conn = mock(Connection.class);
+        when(conn.getSchema()).thenReturn("i2b2demodata");
+        when(conn.createStatement()).thenReturn(stmt);
+
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(conn);
+
+        ReferenceSet references = dbService.getReferenceSet(new JdbcTemplate(dataSource), "CONCEPT_DIMENSION", "concept_cd");
+
+        assertEquals(2, references.size());
+        verify(stmt).executeQuery("SELECT COUNT(*) FROM i2b2demodata.concept_dimension");
+    }
+
+    private DelimitedRecord parse(String line) {
+        DelimitedRecord record = new DelimitedRecord(Pattern.compile("\t"));
+        record.parse(line);
+
+        return record;
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.pitt.dbmi.i2b2.database.Delimiters;
+import edu.pitt.dbmi.i2b2.database.model.FileProfile;
+import edu.pitt.dbmi.i2b2.database.model.TableColumn;
+import edu.pitt.dbmi.i2b2.database.util.DateFormatters;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Types;
+import java.text.DateFormat;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * Oct 18, 2026 10:20:05 PM
+ *
+ * @author agent (agent@local)
+ */
+public class FileSysServiceTest {
+
+    private static final List<TableColumn> COLUMNS = Arrays.asList(
+            new TableColumn("c_name", Types.VARCHAR, "VARCHAR", 4, false),
+            new TableColumn("update_date", Types.TIMESTAMP, "TIMESTAMP", 0, false));
+
+    @TempDir
+    Path tempDir;
+
+    private final FileSysService fileSysService = new FileSysService(null);
+
+    @Test
+    public void testProfileAcceptsWhatTheLoaderParses() throws IOException {
+        // the loader parses a leading date and ignores the time
+        Path file = write("c_name\tupdate_date", "abc\t2023-03-01", "abcd\t2023-03-01 10:15:00");
+
+        FileProfile profile = profile(file, false);
+
+        assertEquals(2, profile.getRowCount());
+        assertFalse(profile.hasViolations());
+    }
+
+    @Test
+    public void testProfileRejectsInvalidDates() throws IOException {
+        Path file = write("c_name\tupdate_date", "abc\t2023-13-01", "abc\t2023-02-30");
+
+        assertTrue(profile(file, false).hasViolations());
+    }
+
+    @Test
+    public void testProfileChecksByteLengths() throws IOException {
+        // four characters, but eight bytes in UTF-8
+        Path file = write("c_name\tupdate_date", "éééé\t2023-03-01");
+
+        assertFalse(profile(file, false).hasViolations());
+        assertTrue(profile(file, true).hasViolations());
+    }
+
+    @Test
+    public void testMergeMetadataFilesDropsHeadersAndDuplicates() throws IOException {
+        Path metadataDir = Files.createDirectory(tempDir.resolve("metadata"));
+        Files.write(metadataDir.resolve("a.tsv"), Arrays.asList("c_name", "x", "", "y"));
+        Files.write(metadataDir.resolve("b.tsv"), Arrays.asList("c_name", "y", "z"));
+        Path outputFile = tempDir.resolve("metadata.tsv");
+        Files.write(outputFile, Arrays.asList("stale", "stale", "stale", "stale", "stale"));
+
+        fileSysService.mergeMetadataFiles(metadataDir, outputFile);
+
+        assertEquals(Arrays.asList("x", "y", "z"), Files.readAllLines(outputFile));
+    }
+
+    @Test
+    public void testContentHashesDependOnlyOnContent() throws IOException {
+        Path a = Files.write(tempDir.resolve("a.tsv"), Arrays.asList("c_name", "x"));
+        Path b = Files.write(tempDir.resolve("b.tsv"), Arrays.asList("c_name", "x"));
+        Path c = Files.write(tempDir.resolve("c.tsv"), Arrays.asList("c_name", "y"));
+        Path empty = Files.createFile(tempDir.resolve("empty.tsv"));
+
+        Map<Path, Long> hashes = fileSysService.getContentHashes(Arrays.asList(a, b, c, empty));
+
+        assertEquals(4, hashes.size());
+        assertEquals(hashes.get(a), hashes.get(b));
+        assertNotEquals(hashes.get(a), hashes.get(c));
+        assertNotEquals(hashes.get(a), hashes.get(empty));
+    }
+
+    @Test
+    public void testGetColumnValues() throws IOException {
+        Path file = write("c_name	sourcesystem_cd", "a	SHRINE", "b	", "-- c	OTHER", "d	SHRINE");
+
+        assertEquals(new HashSet<>(Arrays.asList("SHRINE", "")), fileSysService.getColumnValues(file, Delimiters.TAB, "SOURCESYSTEM_CD"));
+        assertTrue(fileSysService.getColumnValues(file, Delimiters.TAB, "c_path").isEmpty());
+    }
+
+    private FileProfile profile(Path file, boolean byteLengths) throws IOException {
+        DateFormat dateFormat = (DateFormat) DateFormatters.METADATA_DATE_FORMATTER.clone();
+
+        return fileSysService.profileFile(file, Delimiters.TAB, dateFormat, COLUMNS, byteLengths);
+    }
+
+    private Path write(String... lines) throws IOException {
+        return Files.write(tempDir.resolve("data.tsv"), Arrays.asList(lines), StandardCharsets.UTF_8);
+    }
+
+}
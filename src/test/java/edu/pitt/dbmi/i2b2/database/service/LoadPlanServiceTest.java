@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.pitt.dbmi.i2b2.database.conf.LoadPlanProperties;
+import edu.pitt.dbmi.i2b2.database.conf.LoadPlanProperties.Step;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Oct 18, 2026 11:56:05 PM
+ *
+ * @author agent (agent@local)
+ */
+public class LoadPlanServiceTest {
+
+    @Test
+    public void testRejectPartitionedAndSortedFactLoad() {
+        Step step = createFactLoadStep();
+        step.setPartitioned(true);
+        step.setSortBy(Collections.singletonList("concept_cd"));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> run(step));
+        assertEquals("Step facts cannot be both partitioned and sorted.", exception.getMessage());
+    }
+
+    @Test
+    public void testRejectPartitionedAndMinimallyLoggedFactLoad() {
+        Step step = createFactLoadStep();
+        step.setPartitioned(true);
+        step.setMinimalLogging(true);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> run(step));
+        assertEquals("Step facts cannot be both partitioned and minimally logged.", exception.getMessage());
+    }
+
+    private static Step createFactLoadStep() {
+        Step step = new Step();
+        step.setJob("fact-load");
+        step.setPath("data/observation_fact.tsv");
+
+        return step;
+    }
+
+    private static boolean run(Step step) {
+        LoadPlanProperties properties = new LoadPlanProperties();
+        properties.setSteps(Collections.singletonMap("facts", step));
+
+        return new LoadPlanService(properties, null, null, null).run();
+    }
+
+}
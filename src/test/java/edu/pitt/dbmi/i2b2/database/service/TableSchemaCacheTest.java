@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.pitt.dbmi.i2b2.database.model.TableColumn;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Oct 18, 2026 10:41:17 PM
+ *
+ * @author agent (agent@local)
+ */
+public class TableSchemaCacheTest {
+
+    private DataSource dataSource;
+    private DatabaseMetaData metadata;
+
+    private final TableSchemaCache tableSchemaCache = new TableSchemaCache();
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        metadata = mock(DatabaseMetaData.class);
+        when(metadata.getColumns(any(), eq("public"), eq("concept_dimension"), isNull()))
+                .thenAnswer(invocation -> createColumnResultSet());
+        when(metadata.getColumns(any(), eq("public"), eq("missing_table"), isNull()))
+                .thenAnswer(invocation -> mock(ResultSet.class));
+        when(metadata.getColumns(any(), eq("public"), eq("MISSING_TABLE"), isNull()))
+                .thenAnswer(invocation -> mock(ResultSet.class));
+
+        Connection conn = mock(Connection.class);
+        when(conn.getSchema()).thenReturn("public");
+        when(conn.getMetaData()).thenReturn(metadata);
+
+        dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(conn);
+    }
+
+    @Test
+    public void testColumnsAreReadOnce() throws SQLException {
+        List<TableColumn> columns = tableSchemaCache.getColumns(dataSource, "concept_dimension");
+        tableSchemaCache.getColumns(dataSource, "CONCEPT_DIMENSION");
+
+        assertEquals(1, columns.size());
+        assertEquals("concept_cd", columns.get(0).getName());
+        assertEquals(Types.VARCHAR, columns.get(0).getType());
+        verify(metadata, times(1)).getColumns(any(), eq("public"), eq("concept_dimension"), isNull());
+    }
+
+    @Test
+    public void testEvictRereadsColumns() throws SQLException {
+        tableSchemaCache.getColumns(dataSource, "concept_dimension");
+        tableSchemaCache.evict(dataSource, "Concept_Dimension");
+        tableSchemaCache.getColumns(dataSource, "concept_dimension");
+
+        verify(metadata, times(2)).getColumns(any(), eq("public"), eq("concept_dimension"), isNull());
+    }
+
+    @Test
+    public void testEvictOnlyAffectsTheDatasource() throws SQLException {
+        tableSchemaCache.getColumns(dataSource, "concept_dimension");
+        tableSchemaCache.evict(mock(DataSource.class), "concept_dimension");
+        tableSchemaCache.getColumns(dataSource, "concept_dimension");
+
+        verify(metadata, times(1)).getColumns(any(), eq("public"), eq("concept_dimension"), isNull());
+    }
+
+    @Test
+    public void testMissingTablesAreNotCached() throws SQLException {
+        assertTrue(tableSchemaCache.getColumns(dataSource, "missing_table").isEmpty());
+        assertTrue(tableSchemaCache.getColumns(dataSource, "missing_table").isEmpty());
+
+        verify(metadata, times(2)).getColumns(any(), eq("public"), eq("MISSING_TABLE"), isNull());
+    }
+
+    private ResultSet createColumnResultSet() throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.next()).thenReturn(true, false);
+        when(rs.getString("COLUMN_NAME")).thenReturn("concept_cd");
+        when(rs.getInt("DATA_TYPE")).thenReturn(Types.VARCHAR);
+        when(rs.getString("TYPE_NAME")).thenReturn("varchar");
+        when(rs.getInt("COLUMN_SIZE")).thenReturn(50);
+        when(rs.getInt("NULLABLE")).thenReturn(DatabaseMetaData.columnNoNulls);
+
+        return rs;
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.util;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Oct 19, 2026 12:08:37 AM
+ *
+ * @author agent (agent@local)
+ */
+public class BloomFilterTest {
+
+    private static final int NUM_OF_VALUES = 100000;
+
+    @Test
+    public void testNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(NUM_OF_VALUES, 0.01);
+        for (int i = 0; i < NUM_OF_VALUES; i++) {
+            filter.put(Hashes.hash64("ICD10:" + i));
+        }
+
+        for (int i = 0; i < NUM_OF_VALUES; i++) {
+            assertTrue(filter.mightContain(Hashes.hash64("ICD10:" + i)));
+        }
+    }
+
+    @Test
+    public void testFalsePositiveRateIsNearTheTarget() {
+        BloomFilter filter = new BloomFilter(NUM_OF_VALUES, 0.01);
+        for (int i = 0; i < NUM_OF_VALUES; i++) {
+            filter.put(Hashes.hash64("ICD10:" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < NUM_OF_VALUES; i++) {
+            if (filter.mightContain(Hashes.hash64("LOINC:" + i))) {
+                falsePositives++;
+            }
+        }
+
+        double rate = (double) falsePositives / NUM_OF_VALUES;
+        assertTrue(rate < 0.02, "False-positive rate is " + rate);
+    }
+
+}
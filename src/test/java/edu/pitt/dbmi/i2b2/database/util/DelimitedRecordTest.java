@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Oct 18, 2026 10:52:33 PM
+ *
+ * @author agent (agent@local)
+ */
+public class DelimitedRecordTest {
+
+    private static final Pattern TAB = Pattern.compile("\t");
+
+    @Test
+    public void testFieldsAreTrimmedLikeSplit() {
+        String line = " 1 \tICD10:E11.9\t\t  text  ";
+        DelimitedRecord record = new DelimitedRecord(TAB);
+        record.parse(line);
+
+        String[] fields = new String[record.size()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = record.getString(i);
+        }
+
+        assertArrayEquals(new String[]{"1", "ICD10:E11.9", "", "text"}, fields);
+        assertTrue(record.isEmpty(2));
+        assertEquals(4, record.getLength(3));
+        assertEquals("ICD10:E11.9", line.substring(record.getStart(1), record.getEnd(1)));
+    }
+
+    @Test
+    public void testTrailingEmptyFieldsAreKept() {
+        DelimitedRecord record = new DelimitedRecord(TAB);
+        record.parse("a\t\t");
+
+        assertEquals(3, record.size());
+        assertTrue(record.isEmpty(2));
+    }
+
+    @Test
+    public void testRecordIsReusedForWideLines() {
+        StringBuilder line = new StringBuilder("0");
+        for (int i = 1; i < 100; i++) {
+            line.append('\t').append(i);
+        }
+
+        DelimitedRecord record = new DelimitedRecord(TAB);
+        record.parse("a\tb");
+        record.parse(line.toString());
+
+        assertEquals(100, record.size());
+        assertEquals("99", record.getString(99));
+    }
+
+    @Test
+    public void testGetStringFromDictionarySharesInstances() {
+        StringDictionary dictionary = new StringDictionary();
+        DelimitedRecord record = new DelimitedRecord(TAB);
+
+        record.parse("1\tLOINC:2345-7");
+        String first = record.getString(1, dictionary);
+        record.parse("2\tLOINC:2345-7");
+        String second = record.getString(1, dictionary);
+
+        assertEquals("LOINC:2345-7", first);
+        assertSame(first, second);
+    }
+
+    @Test
+    public void testGetReaderReadsOnlyTheField() throws IOException {
+        DelimitedRecord record = new DelimitedRecord(TAB);
+        record.parse("1\t<xml>some text</xml>\t3");
+
+        StringBuilder text = new StringBuilder();
+        char[] buffer = new char[4];
+        try (Reader reader = record.getReader(1)) {
+            for (int n = reader.read(buffer); n != -1; n = reader.read(buffer)) {
+                text.append(buffer, 0, n);
+            }
+        }
+
+        assertEquals("<xml>some text</xml>", text.toString());
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.pitt.dbmi.i2b2.database.util.ExternalSorter.SortedLines;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Oct 18, 2026 11:31:46 PM
+ *
+ * @author agent (agent@local)
+ */
+public class ExternalSorterTest {
+
+    private static final Pattern TAB = Pattern.compile("\t");
+
+    /**
+     * Number of lines that spill more than the 128 runs merged at once, given
+     * the 1 MB minimum chunk.
+     */
+    private static final int NUM_OF_SPILLED_LINES = 1_400_000;
+
+    @Test
+    public void testSortInMemoryByMultipleKeys() throws IOException {
+        ExternalSorter sorter = new ExternalSorter(TAB, new int[]{1, 0}, new int[]{Types.VARCHAR, Types.DATE},
+                DateFormatters.METADATA_DATE_FORMATTER, 64L * 1024 * 1024, 2);
+
+        List<String> lines = Arrays.asList(
+                "2020-03-01\tB",
+                "",
+                "2020-01-01\tB",
+                "-- commented out",
+                "2019-12-31\tA",
+                "\tA");
+
+        List<String> sorted = readAll(sorter.sort(toLineReader(lines)));
+
+        assertEquals(Arrays.asList("\tA", "2019-12-31\tA", "2020-01-01\tB", "2020-03-01\tB"), sorted);
+    }
+
+    @Test
+    public void testSortMergesInMultiplePasses() throws IOException {
+        ExternalSorter sorter = new ExternalSorter(TAB, new int[]{0}, new int[]{Types.INTEGER},
+                DateFormatters.METADATA_DATE_FORMATTER, 1, 4);
+
+        // a permutation of 0 to n - 1, since the multiplier is prime to n
+        LineReader lines = new LineReader() {
+            private int i = 0;
+
+            @Override
+            public String readLine() {
+                return (i < NUM_OF_SPILLED_LINES)
+                        ? Long.toString((i++ * 7919L) % NUM_OF_SPILLED_LINES)
+                        : null;
+            }
+        };
+
+        int count = 0;
+        try (SortedLines sorted = sorter.sort(lines)) {
+            for (String line = sorted.readLine(); line != null; line = sorted.readLine()) {
+                assertEquals(count++, Integer.parseInt(line));
+            }
+        }
+
+        assertEquals(NUM_OF_SPILLED_LINES, count);
+    }
+
+    @Test
+    public void testSortDeletesTemporaryFilesAndKeepsTheReadError() throws IOException {
+        ExternalSorter sorter = new ExternalSorter(TAB, new int[]{0}, new int[]{Types.INTEGER},
+                DateFormatters.METADATA_DATE_FORMATTER, 1, 2);
+
+        IOException readError = new IOException("Unable to read the file.");
+        LineReader lines = new LineReader() {
+            private int i = 0;
+
+            @Override
+            public String readLine() throws IOException {
+                if (i == NUM_OF_SPILLED_LINES / 10) {
+                    throw readError;
+                }
+
+                return Integer.toString(i++);
+            }
+        };
+
+        List<Path> tempDirectories = getSortDirectories();
+        IOException exception = assertThrows(IOException.class, () -> sorter.sort(lines));
+
+        assertSame(readError, exception);
+        assertArrayEquals(new Throwable[0], exception.getSuppressed());
+        assertEquals(tempDirectories, getSortDirectories());
+    }
+
+    private static List<Path> getSortDirectories() throws IOException {
+        try (Stream<Path> files = Files.list(Paths.get(System.getProperty("java.io.tmpdir")))) {
+            List<Path> directories = new ArrayList<>();
+            files.filter(file -> file.getFileName().toString().startsWith("i2b2-sort-"))
+                    .sorted()
+                    .forEach(directories::add);
+
+            return directories;
+        }
+    }
+
+    private static LineReader toLineReader(List<String> lines) {
+        Iterator<String> iterator = lines.iterator();
+
+        return () -> iterator.hasNext() ? iterator.next() : null;
+    }
+
+    private static List<String> readAll(SortedLines sortedLines) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (SortedLines sorted = sortedLines) {
+            for (String line = sorted.readLine(); line != null; line = sorted.readLine()) {
+                lines.add(line);
+            }
+        }
+
+        return lines;
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Oct 18, 2026 10:12:40 PM
+ *
+ * @author agent (agent@local)
+ */
+public class HyperLogLogTest {
+
+    @Test
+    public void testEstimateIsExactForSmallCardinalities() {
+        HyperLogLog hll = new HyperLogLog();
+        for (int i = 0; i < 1000; i++) {
+            hll.add("value" + (i % 10));
+        }
+
+        assertEquals(10, hll.estimate());
+    }
+
+    @Test
+    public void testEstimateIsWithinErrorForLargeCardinalities() {
+        HyperLogLog hll = new HyperLogLog();
+        int numOfValues = 100000;
+        for (int i = 0; i < numOfValues; i++) {
+            hll.add("ICD10:" + i);
+        }
+
+        // the standard error at precision 12 is about 1.6%
+        double error = Math.abs(hll.estimate() - numOfValues) / (double) numOfValues;
+        assertTrue(error < 0.05, "error " + error);
+    }
+
+    @Test
+    public void testMergeEstimatesTheUnion() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (int i = 0; i < 50000; i++) {
+            first.add("a" + i);
+            second.add("a" + (i + 25000));
+        }
+        first.merge(second);
+
+        double error = Math.abs(first.estimate() - 75000) / 75000.0;
+        assertTrue(error < 0.05, "error " + error);
+    }
+
+}
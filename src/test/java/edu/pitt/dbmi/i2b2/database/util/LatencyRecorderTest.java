@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Oct 18, 2026 11:05:12 PM
+ *
+ * @author agent (agent@local)
+ */
+public class LatencyRecorderTest {
+
+    @Test
+    public void testPercentilesUseNearestRank() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (int i = 100; i >= 1; i--) {
+            recorder.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        assertEquals(100, recorder.getCount());
+        assertEquals(50.0, recorder.getPercentileMillis(50), 0.0);
+        assertEquals(99.0, recorder.getPercentileMillis(99), 0.0);
+        assertEquals(100.0, recorder.getPercentileMillis(100), 0.0);
+        assertEquals(1.0, recorder.getPercentileMillis(0.5), 0.0);
+    }
+
+    @Test
+    public void testEmptyRecorderReportsZero() {
+        assertEquals(0.0, new LatencyRecorder().getPercentileMillis(99), 0.0);
+    }
+
+}
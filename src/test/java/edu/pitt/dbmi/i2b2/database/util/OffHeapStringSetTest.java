@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Oct 19, 2026 12:15:52 AM
+ *
+ * @author agent (agent@local)
+ */
+public class OffHeapStringSetTest {
+
+    @Test
+    public void testAddAndContains() {
+        OffHeapStringSet set = new OffHeapStringSet();
+
+        assertTrue(set.add("ICD10:E11.9"));
+        assertFalse(set.add("ICD10:E11.9"));
+        assertTrue(set.add(""));
+
+        assertEquals(2, set.size());
+        assertTrue(set.contains("ICD10:E11.9"));
+        assertTrue(set.contains(""));
+        assertFalse(set.contains("ICD10:E11"));
+        assertFalse(set.contains("ICD10:E11.90"));
+    }
+
+    @Test
+    public void testContainsRangeOfLine() {
+        OffHeapStringSet set = new OffHeapStringSet();
+        set.add("LOINC:2345-7");
+
+        String line = "1\tLOINC:2345-7\t2020-01-01";
+        assertTrue(set.contains(Hashes.hash64(line, 2, 14), line, 2, 14));
+        assertFalse(set.contains(Hashes.hash64(line, 2, 13), line, 2, 13));
+    }
+
+    @Test
+    public void testGrowsPastTheExpectedSize() {
+        // a small table and arena so that both grow
+        OffHeapStringSet set = new OffHeapStringSet(16);
+        for (int i = 0; i < 50000; i++) {
+            assertTrue(set.add("concept " + i + " with a name longer than the arena expects"));
+        }
+
+        assertEquals(50000, set.size());
+        for (int i = 0; i < 50000; i++) {
+            assertTrue(set.contains("concept " + i + " with a name longer than the arena expects"));
+        }
+        assertFalse(set.contains("concept 50000 with a name longer than the arena expects"));
+    }
+
+}
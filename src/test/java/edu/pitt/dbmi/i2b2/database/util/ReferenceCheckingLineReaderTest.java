@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import edu.pitt.dbmi.i2b2.database.Delimiters;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * Oct 19, 2026 12:24:10 AM
+ *
+ * @author agent (agent@local)
+ */
+public class ReferenceCheckingLineReaderTest {
+
+    private static final String HEADER = "patient_num\tconcept_cd";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testOrphansAreWrittenToTheSideFileAndCounted() throws IOException {
+        ReferenceSet references = new ReferenceSet(2);
+        references.add("ICD10:E11.9");
+        references.add("LOINC:2345-7");
+
+        List<String> lines = Arrays.asList(
+                "1\tICD10:E11.9",
+                "2\tICD10:I10",
+                "",
+                "-- 3\tICD10:I10",
+                "4\tLOINC:2345-7",
+                "5\tICD10:J45",
+                "6\tLOCAL");
+
+        Path orphanFile = tempDir.resolve("observation_fact.tsv.orphans");
+        List<String> passed = new ArrayList<>();
+        try (ReferenceCheckingLineReader reader = new ReferenceCheckingLineReader(
+                toLineReader(lines), Delimiters.TAB, 1, references, orphanFile, HEADER)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                passed.add(line);
+            }
+
+            Map<String, Long> orphanCounts = new LinkedHashMap<>();
+            orphanCounts.put("ICD10", 2L);
+            orphanCounts.put("LOCAL", 1L);
+            assertEquals(3, reader.getNumOfOrphans());
+            assertEquals(orphanCounts, reader.getOrphanCounts());
+        }
+
+        assertEquals(Arrays.asList("1\tICD10:E11.9", "", "-- 3\tICD10:I10", "4\tLOINC:2345-7"), passed);
+        assertEquals(Arrays.asList(HEADER, "2\tICD10:I10", "5\tICD10:J45", "6\tLOCAL"), Files.readAllLines(orphanFile));
+    }
+
+    @Test
+    public void testNoSideFileWithoutOrphans() throws IOException {
+        ReferenceSet references = new ReferenceSet(1);
+        references.add("ICD10:E11.9");
+
+        Path orphanFile = tempDir.resolve("observation_fact.tsv.orphans");
+        try (ReferenceCheckingLineReader reader = new ReferenceCheckingLineReader(
+                toLineReader(Arrays.asList("1\tICD10:E11.9")), Delimiters.TAB, 1, references, orphanFile, HEADER)) {
+            assertEquals("1\tICD10:E11.9", reader.readLine());
+            assertEquals(null, reader.readLine());
+            assertEquals(0, reader.getNumOfOrphans());
+        }
+
+        assertFalse(Files.exists(orphanFile));
+    }
+
+    private static LineReader toLineReader(List<String> lines) {
+        Iterator<String> iterator = lines.iterator();
+
+        return () -> iterator.hasNext() ? iterator.next() : null;
+    }
+
+}
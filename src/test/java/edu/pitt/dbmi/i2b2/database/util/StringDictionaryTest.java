@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Oct 18, 2026 11:14:08 PM
+ *
+ * @author agent (agent@local)
+ */
+public class StringDictionaryTest {
+
+    private static final int SAMPLE_SIZE = 10000;
+
+    @Test
+    public void testRepeatedValuesReturnTheSameInstance() {
+        StringDictionary dictionary = new StringDictionary();
+        String line = "x\tABC\ty\tABC";
+
+        String first = dictionary.get(line, 2, 5);
+        String second = dictionary.get(line, 8, 11);
+
+        assertEquals("ABC", first);
+        assertSame(first, second);
+        assertEquals(1, dictionary.size());
+        assertEquals(1, dictionary.getHits());
+    }
+
+    @Test
+    public void testStaysEnabledForLowCardinalityColumns() {
+        StringDictionary dictionary = new StringDictionary();
+        for (int i = 0; i < SAMPLE_SIZE * 2; i++) {
+            String line = "value" + (i % 10);
+            assertEquals(line, dictionary.get(line, 0, line.length()));
+        }
+
+        assertTrue(dictionary.isEnabled());
+        assertEquals(10, dictionary.size());
+    }
+
+    @Test
+    public void testDisablesForHighCardinalityColumnsOnMiss() {
+        StringDictionary dictionary = new StringDictionary();
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            String line = "value" + i;
+            dictionary.get(line, 0, line.length());
+        }
+
+        assertFalse(dictionary.isEnabled());
+        assertEquals("value", dictionary.get("value", 0, 5));
+    }
+
+    @Test
+    public void testDisablesWhenTheSampleLookupIsAHit() {
+        StringDictionary dictionary = new StringDictionary();
+        for (int i = 0; i < SAMPLE_SIZE - 1; i++) {
+            String line = "value" + i;
+            dictionary.get(line, 0, line.length());
+        }
+        assertTrue(dictionary.isEnabled());
+
+        // the sample lookup hits an entry already in the dictionary
+        String line = "value0";
+        assertEquals(line, dictionary.get(line, 0, line.length()));
+
+        assertEquals(SAMPLE_SIZE, dictionary.getLookups());
+        assertEquals(1, dictionary.getHits());
+        assertFalse(dictionary.isEnabled());
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2023 University of Pittsburgh.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package edu.pitt.dbmi.i2b2.database.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Oct 19, 2026 1:12:44 AM
+ *
+ * @author agent (agent@local)
+ */
+public class XxHash64Test {
+
+    @Test
+    public void testPublishedVectors() {
+        assertEquals(0xef46db3751d8e999L, hash("", 0));
+        assertEquals(0xd24ec4f1a98c6e5bL, hash("a", 0));
+        assertEquals(0x44bc2cf5ad770999L, hash("abc", 0));
+        assertEquals(0xfbcea83c8a378bf1L, hash("Nobody inspects the spammish repetition", 0));
+        assertEquals(0x32dd38952c4bc720L, hash("xxhash", 0));
+        assertEquals(0xb559b98d844e0635L, hash("xxhash", 20141025));
+    }
+
+    @Test
+    public void testBufferRangeMatchesArray() {
+        // long enough for the 32-byte stripes and every tail length
+        byte[] bytes = new byte[100];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i * 31);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + 7);
+        buffer.position(7);
+        buffer.put(bytes);
+        for (int length = 0; length <= bytes.length; length++) {
+            byte[] prefix = new byte[length];
+            System.arraycopy(bytes, 0, prefix, 0, length);
+
+            assertEquals(XxHash64.hash(prefix, 42), XxHash64.hash(buffer, 7, length, 42), "length " + length);
+        }
+    }
+
+    private static long hash(String value, long seed) {
+        return XxHash64.hash(value.getBytes(StandardCharsets.UTF_8), seed);
+    }
+
+}